@@ -0,0 +1,136 @@
+package example;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compares a JMH CSV result file ({@code -rf csv -rff current.csv}) with a stored baseline
+ * and exits with status 1 when any benchmark got slower, or allocates more per operation,
+ * by more than the allowed percentage.
+ * <p>
+ * Baselines are only comparable on the machine that recorded them, so none is committed;
+ * record one first with {@code java -jar target/benchmarks.jar -prof gc -rf csv -rff baseline.csv}.
+ * A missing or unreadable file exits with status 2.
+ * <p>
+ * Usage: {@code java -cp target/benchmarks.jar example.BaselineComparison baseline.csv current.csv [maxRegressionPercent]}
+ */
+public class BaselineComparison {
+    private static final String ALLOCATION_METRIC = "gc.alloc.rate.norm";
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("usage: BaselineComparison <baseline.csv> <current.csv> [maxRegressionPercent]");
+            System.exit(2);
+        }
+        double allowed = args.length > 2 ? Double.parseDouble(args[2]) : 10;
+        Path baselineFile = Path.of(args[0]);
+        if (!Files.isRegularFile(baselineFile)) {
+            System.err.println("No baseline at " + baselineFile + "; record one on this machine with:");
+            System.err.println("  java -jar target/benchmarks.jar -prof gc -rf csv -rff " + baselineFile);
+            System.exit(2);
+        }
+        if (!Files.isRegularFile(Path.of(args[1]))) {
+            System.err.println("No benchmark results at " + args[1]);
+            System.exit(2);
+        }
+        Map<String, Result> baseline;
+        Map<String, Result> current;
+        try {
+            baseline = read(baselineFile);
+            current = read(Path.of(args[1]));
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.exit(2);
+            return;
+        }
+
+        int regressions = 0;
+        for (Map.Entry<String, Result> entry : current.entrySet()) {
+            Result before = baseline.get(entry.getKey());
+            if (before == null) {
+                System.out.printf("NEW       %s %.3f %s%n", entry.getKey(), entry.getValue().score, entry.getValue().unit);
+                continue;
+            }
+            double change = entry.getValue().regressionPercent(before);
+            boolean regressed = change > allowed;
+            if (regressed)
+                regressions++;
+            System.out.printf("%-9s %s %.3f -> %.3f %s (%+.1f%%)%n", regressed ? "REGRESSED" : "OK",
+                    entry.getKey(), before.score, entry.getValue().score, entry.getValue().unit, change);
+        }
+        System.out.printf("%d regression(s) above %.1f%%%n", regressions, allowed);
+        System.exit(regressions == 0 ? 0 : 1);
+    }
+
+    static Map<String, Result> read(Path file) throws IOException {
+        List<String> lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+        if (lines.isEmpty())
+            throw new IllegalArgumentException(file + " is empty");
+        List<String> header = fields(lines.get(0));
+        int benchmark = header.indexOf("Benchmark");
+        int mode = header.indexOf("Mode");
+        int score = header.indexOf("Score");
+        int unit = header.indexOf("Unit");
+        if (benchmark < 0 || mode < 0 || score < 0 || unit < 0)
+            throw new IllegalArgumentException(file + " is not a JMH CSV result file (run with -rf csv)");
+        Map<String, Result> results = new LinkedHashMap<>();
+        for (String line : lines.subList(1, lines.size())) {
+            if (line.isBlank())
+                continue;
+            List<String> row = fields(line);
+            String name = row.get(benchmark);
+            boolean secondary = name.contains(":");
+            if (secondary && !name.endsWith(ALLOCATION_METRIC))
+                continue;
+            StringBuilder key = new StringBuilder(name);
+            for (int i = unit + 1; i < header.size(); i++)
+                key.append(' ').append(header.get(i).replace("Param: ", "")).append('=').append(row.get(i));
+            boolean higherIsBetter = !secondary && row.get(mode).equals("thrpt");
+            results.put(key.toString(), new Result(Double.parseDouble(row.get(score)), row.get(unit), higherIsBetter));
+        }
+        return results;
+    }
+
+    static List<String> fields(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (c == '"')
+                quoted = !quoted;
+            else if (c == ',' && !quoted) {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else
+                field.append(c);
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    static final class Result {
+        final double score;
+        final String unit;
+        final boolean higherIsBetter;
+
+        Result(double score, String unit, boolean higherIsBetter) {
+            this.score = score;
+            this.unit = unit;
+            this.higherIsBetter = higherIsBetter;
+        }
+
+        double regressionPercent(Result baseline) {
+            if (baseline.score == 0)
+                return score == 0 ? 0 : Double.POSITIVE_INFINITY;
+            double change = (score - baseline.score) / baseline.score * 100;
+            return higherIsBetter ? -change : change;
+        }
+    }
+}
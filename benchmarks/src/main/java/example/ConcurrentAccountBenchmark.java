@@ -0,0 +1,136 @@
+package example;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Kiosks adding rentals to one popular account while other threads read it: three
+ * writers and one reader per group, with {@link ConcurrentCustomerAccount} against a
+ * {@code synchronized} list copied for each statement. A writer that finds the account
+ * holding {@code rentals} rentals swaps in an empty one, so statement lengths stay bounded
+ * however fast the writers run.
+ */
+@State(Scope.Group)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConcurrentAccountBenchmark {
+    static final Rental RENTAL = new Rental(new Movie("Rembo", Movie.MovieType.REGULAR), 3);
+
+    @Param({"1000"})
+    int rentals;
+
+    final AtomicReference<ConcurrentCustomerAccount> account = new AtomicReference<>();
+    final AtomicReference<SynchronizedAccount> locked = new AtomicReference<>();
+
+    /**
+     * The straightforward alternative: a list guarded by the account's monitor.
+     */
+    static final class SynchronizedAccount {
+        private final List<Rental> rentals = new ArrayList<>();
+
+        synchronized void addRental(Rental rental) {
+            rentals.add(rental);
+        }
+
+        synchronized int size() {
+            return rentals.size();
+        }
+
+        String statement() {
+            List<Rental> copy;
+            synchronized (this) {
+                copy = new ArrayList<>(rentals);
+            }
+            return new Customer("Popular", copy).statement();
+        }
+
+        synchronized BillingTotals totals() {
+            return new Customer("Popular", rentals).totals();
+        }
+    }
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        account.set(new ConcurrentCustomerAccount("Popular"));
+        locked.set(new SynchronizedAccount());
+    }
+
+    void addLockFree() {
+        ConcurrentCustomerAccount current = account.get();
+        if (current.getRentalCount() >= rentals)
+            account.compareAndSet(current, new ConcurrentCustomerAccount("Popular"));
+        else
+            current.addRental(RENTAL);
+    }
+
+    void addLocked() {
+        SynchronizedAccount current = locked.get();
+        if (current.size() >= rentals)
+            locked.compareAndSet(current, new SynchronizedAccount());
+        else
+            current.addRental(RENTAL);
+    }
+
+    @Benchmark
+    @Group("lockFree")
+    @GroupThreads(3)
+    public void lockFreeAdd() {
+        addLockFree();
+    }
+
+    @Benchmark
+    @Group("lockFree")
+    @GroupThreads(1)
+    public BillingTotals lockFreeTotals() {
+        return account.get().totals();
+    }
+
+    @Benchmark
+    @Group("locked")
+    @GroupThreads(3)
+    public void lockedAdd() {
+        addLocked();
+    }
+
+    @Benchmark
+    @Group("locked")
+    @GroupThreads(1)
+    public BillingTotals lockedTotals() {
+        return locked.get().totals();
+    }
+
+    @Benchmark
+    @Group("lockFreeStatements")
+    @GroupThreads(3)
+    public void lockFreeAddWhileStating() {
+        addLockFree();
+    }
+
+    @Benchmark
+    @Group("lockFreeStatements")
+    @GroupThreads(1)
+    public String lockFreeStatement() {
+        return account.get().statement();
+    }
+
+    @Benchmark
+    @Group("lockedStatements")
+    @GroupThreads(3)
+    public void lockedAddWhileStating() {
+        addLocked();
+    }
+
+    @Benchmark
+    @Group("lockedStatements")
+    @GroupThreads(1)
+    public String lockedStatement() {
+        return locked.get().statement();
+    }
+}
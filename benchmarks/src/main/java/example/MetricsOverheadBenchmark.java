@@ -0,0 +1,49 @@
+package example;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link StatementBenchmark}'s statement with {@link BillingMetrics} disabled and enabled;
+ * the difference is the instrumentation overhead.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MetricsOverheadBenchmark {
+
+    @Param({"10", "1000"})
+    int rentals;
+
+    @Param({"false", "true"})
+    boolean metrics;
+
+    Customer customer;
+    StringBuilder reused;
+
+    @Setup
+    public void setUp() {
+        customer = new Customer("Benchmark Customer", StatementBenchmark.rentals(rentals,
+                StatementBenchmark.Mix.MIXED, StatementBenchmark.Titles.SHORT, new SplittableRandom(42)));
+        reused = new StringBuilder(customer.estimatedStatementLength());
+        if (metrics)
+            BillingMetrics.enable();
+    }
+
+    @TearDown
+    public void tearDown() {
+        BillingMetrics.disable();
+    }
+
+    @Benchmark
+    public int statement() {
+        reused.setLength(0);
+        customer.statement(reused);
+        return reused.length();
+    }
+}
@@ -0,0 +1,63 @@
+package example;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Totalling and formatting rental charges as {@code double} (the original statement code)
+ * versus {@code long} cents formatted by {@link Money}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MoneyBenchmark {
+
+    @Param({"10000"})
+    int amounts;
+
+    double[] doubles;
+    long[] cents;
+    StringBuilder out;
+
+    @Setup
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(42);
+        doubles = new double[amounts];
+        cents = new long[amounts];
+        for (int i = 0; i < amounts; i++) {
+            cents[i] = 150L * (1 + random.nextInt(40));
+            doubles[i] = cents[i] / 100.0;
+        }
+        out = new StringBuilder(amounts * 8);
+    }
+
+    @Benchmark
+    public int doubleTotalAndFormat() {
+        out.setLength(0);
+        double total = 0;
+        for (double amount : doubles) {
+            out.append(amount).append('\n');
+            total += amount;
+        }
+        out.append(total);
+        return out.length();
+    }
+
+    @Benchmark
+    public int centsTotalAndFormat() {
+        out.setLength(0);
+        long total = 0;
+        for (long amount : cents) {
+            Money.append(out, amount);
+            out.append('\n');
+            total += amount;
+        }
+        Money.append(out, total);
+        return out.length();
+    }
+}
@@ -0,0 +1,74 @@
+package example;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link MovieCatalog} lookup latency by id and by title, single- and multi-threaded.
+ * {@code bulkLoad} run with {@code -prof gc} reports the bytes allocated to build a
+ * catalog of the given size, an upper bound of its footprint.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MovieCatalogBenchmark {
+
+    @Param({"1000", "100000"})
+    int movies;
+
+    List<Movie> catalogMovies;
+    MovieCatalog catalog;
+    String[] titles;
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        final SplittableRandom random = new SplittableRandom();
+    }
+
+    @Setup
+    public void setUp() {
+        catalogMovies = new ArrayList<>(movies);
+        titles = new String[movies];
+        for (int i = 0; i < movies; i++) {
+            catalogMovies.add(new Movie("Movie title number " + i, Movie.MovieType.values()[i % 3]));
+            // distinct String instances, as they would arrive from a parser
+            titles[i] = new String(catalogMovies.get(i).getTitle());
+        }
+        catalog = new MovieCatalog(movies);
+        catalog.registerAll(catalogMovies);
+    }
+
+    @Benchmark
+    public Movie lookupById(Cursor cursor) {
+        return catalog.movie(cursor.random.nextInt(movies));
+    }
+
+    @Benchmark
+    public Movie lookupByTitle(Cursor cursor) {
+        return catalog.movie(titles[cursor.random.nextInt(movies)]);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public Movie lookupByTitleContended(Cursor cursor) {
+        return catalog.movie(titles[cursor.random.nextInt(movies)]);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 5)
+    @Measurement(iterations = 10)
+    public MovieCatalog bulkLoad() {
+        MovieCatalog loaded = new MovieCatalog(movies);
+        loaded.registerAll(catalogMovies);
+        return loaded;
+    }
+}
@@ -0,0 +1,108 @@
+package example;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDate;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bills a rental list with the original inline points logic, with loyalty rules bolted on
+ * as a second pass that interprets them per rental, and with the same rules compiled by
+ * {@link PointsRules} into the price table lookup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PointsRulesBenchmark {
+    private static final Movie.MovieType[] TYPES = Movie.MovieType.values();
+    private static final LocalDate BILLING_DATE = LocalDate.of(2024, 6, 15);
+    private static final LocalDate[] PROMOTION_FROM = {LocalDate.of(2024, 6, 1), LocalDate.of(2024, 7, 1)};
+    private static final LocalDate[] PROMOTION_UNTIL = {LocalDate.of(2024, 6, 30), LocalDate.of(2024, 7, 31)};
+    private static final Movie.MovieType[] PROMOTION_TYPE = {Movie.MovieType.CHILDRENS, Movie.MovieType.REGULAR};
+    private static final int[] PROMOTION_BONUS = {2, 1};
+    private static final int[] TYPE_PERCENT = {100, 150, 100};
+    private static final int[] TIER_MIN_RENTALS = {0, 50, 500};
+    private static final int[] TIER_PERCENT = {100, 125, 200};
+    private static final int RENTAL_CAP = 6;
+
+    @Param({"10000"})
+    int rentals;
+
+    Movie.MovieType[] types;
+    int[] days;
+    PriceTable table;
+    PointsProgram program;
+
+    @Setup
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(42);
+        types = new Movie.MovieType[rentals];
+        days = new int[rentals];
+        for (int i = 0; i < rentals; i++) {
+            types[i] = TYPES[random.nextInt(TYPES.length)];
+            days[i] = 1 + random.nextInt(14);
+        }
+        table = PriceTable.STANDARD;
+        PointsRules rules = PointsRules.STANDARD;
+        for (int i = 0; i < PROMOTION_FROM.length; i++)
+            rules = rules.withPromotion(PROMOTION_FROM[i], PROMOTION_UNTIL[i], PROMOTION_TYPE[i], PROMOTION_BONUS[i]);
+        for (Movie.MovieType type : TYPES)
+            rules = rules.withMultiplier(type, TYPE_PERCENT[type.ordinal()]);
+        for (int tier = 1; tier < TIER_MIN_RENTALS.length; tier++)
+            rules = rules.withTier(TIER_MIN_RENTALS[tier], TIER_PERCENT[tier]);
+        program = rules.withRentalCap(RENTAL_CAP).compile(table, BILLING_DATE);
+        if (rulesSecondPass() != compiledRules())
+            throw new IllegalStateException("Compiled rules disagree with the interpreted ones");
+    }
+
+    @Benchmark
+    public long inlinePoints() {
+        long total = 0;
+        int points = 0;
+        for (int i = 0; i < rentals; i++) {
+            total += table.chargeCents(types[i], days[i]);
+            points++;
+            if (types[i] == Movie.MovieType.NEW_RELEASE && days[i] > 1)
+                points++;
+        }
+        return total + points;
+    }
+
+    @Benchmark
+    public long rulesSecondPass() {
+        long total = 0;
+        for (int i = 0; i < rentals; i++)
+            total += table.chargeCents(types[i], days[i]);
+        int tier = TIER_MIN_RENTALS.length - 1;
+        while (rentals < TIER_MIN_RENTALS[tier])
+            tier--;
+        long points = 0;
+        for (int i = 0; i < rentals; i++) {
+            long rentalPoints = table.frequentRenterPoints(types[i], days[i]);
+            for (int p = 0; p < PROMOTION_FROM.length; p++) {
+                if (types[i] == PROMOTION_TYPE[p] && !BILLING_DATE.isBefore(PROMOTION_FROM[p])
+                        && !BILLING_DATE.isAfter(PROMOTION_UNTIL[p]))
+                    rentalPoints += PROMOTION_BONUS[p];
+            }
+            rentalPoints = rentalPoints * TYPE_PERCENT[types[i].ordinal()] * TIER_PERCENT[tier] / 10_000;
+            points += Math.min(rentalPoints, RENTAL_CAP);
+        }
+        return total + points;
+    }
+
+    @Benchmark
+    public long compiledRules() {
+        PriceTable ruled = program.priceTable(program.tier(rentals));
+        long total = 0;
+        int points = 0;
+        for (int i = 0; i < rentals; i++) {
+            total += ruled.chargeCents(types[i], days[i]);
+            points += ruled.frequentRenterPoints(types[i], days[i]);
+        }
+        return total + points;
+    }
+}
@@ -0,0 +1,96 @@
+package example;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the original per-rental {@code switch} in {@code Customer.statement()} with
+ * the {@link Tariff} formula and the precomputed {@link PriceTable} lookup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PriceTableBenchmark {
+    private static final Movie.MovieType[] TYPES = Movie.MovieType.values();
+
+    @Param({"10000"})
+    int rentals;
+
+    @Param({"14", "365"})
+    int maxDaysRented;
+
+    Movie.MovieType[] types;
+    int[] days;
+    Tariff[] tariffs;
+    PriceTable table;
+
+    @Setup
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(42);
+        types = new Movie.MovieType[rentals];
+        days = new int[rentals];
+        for (int i = 0; i < rentals; i++) {
+            types[i] = TYPES[random.nextInt(TYPES.length)];
+            days[i] = random.nextInt(maxDaysRented + 1);
+        }
+        tariffs = new Tariff[TYPES.length];
+        for (Movie.MovieType type : TYPES)
+            tariffs[type.ordinal()] = Tariff.standard(type);
+        table = PriceTable.STANDARD;
+    }
+
+    @Benchmark
+    public double switchFormula() {
+        double total = 0;
+        int points = 0;
+        for (int i = 0; i < rentals; i++) {
+            double thisAmount = 0;
+            switch (types[i]) {
+                case REGULAR -> {
+                    thisAmount += 2;
+                    if (days[i] > 2)
+                        thisAmount += (days[i] - 2) * 1.5;
+                }
+                case NEW_RELEASE -> thisAmount += days[i] * 3;
+                case CHILDRENS -> {
+                    thisAmount += 1.5;
+                    if (days[i] > 3)
+                        thisAmount += (days[i] - 3) * 1.5;
+                }
+            }
+            points++;
+            if (types[i] == Movie.MovieType.NEW_RELEASE && days[i] > 1)
+                points++;
+            total += thisAmount;
+        }
+        return total + points;
+    }
+
+    @Benchmark
+    public long tariffFormula() {
+        long total = 0;
+        int points = 0;
+        for (int i = 0; i < rentals; i++) {
+            Tariff tariff = tariffs[types[i].ordinal()];
+            total += tariff.chargeCents(days[i]);
+            points += tariff.frequentRenterPoints(days[i]);
+        }
+        return total + points;
+    }
+
+    @Benchmark
+    public long tableLookup() {
+        long total = 0;
+        int points = 0;
+        for (int i = 0; i < rentals; i++) {
+            total += table.chargeCents(types[i], days[i]);
+            points += table.frequentRenterPoints(types[i], days[i]);
+        }
+        return total + points;
+    }
+}
@@ -0,0 +1,118 @@
+package example;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pricing through a {@link PricingRegistry} with three different {@link PricingPolicy}
+ * implementations registered, versus the original {@code switch}. {@code registryTable}
+ * is the path billing uses; {@code interleavedPolicyCalls} shows the megamorphic call
+ * site the table avoids.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PricingPolicyBenchmark {
+    private static final Movie.MovieType[] TYPES = Movie.MovieType.values();
+
+    static final class WeekendPromo implements PricingPolicy {
+        @Override
+        public long chargeCents(int daysRented) {
+            return daysRented <= 2 ? 200 : 200 + (daysRented - 2) * 300L;
+        }
+
+        @Override
+        public int frequentRenterPoints(int daysRented) {
+            return daysRented > 1 ? 2 : 1;
+        }
+    }
+
+    static final class FlatRate implements PricingPolicy {
+        @Override
+        public long chargeCents(int daysRented) {
+            return 150;
+        }
+
+        @Override
+        public int frequentRenterPoints(int daysRented) {
+            return 1;
+        }
+    }
+
+    @Param({"10000"})
+    int rentals;
+
+    int[] types;
+    int[] days;
+    PricingRegistry registry;
+    PricingPolicy[] policies;
+
+    @Setup
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(42);
+        types = new int[rentals];
+        days = new int[rentals];
+        for (int i = 0; i < rentals; i++) {
+            types[i] = random.nextInt(TYPES.length);
+            days[i] = random.nextInt(15);
+        }
+        registry = new PricingRegistry();
+        registry.register(Movie.MovieType.NEW_RELEASE, new WeekendPromo());
+        registry.register(Movie.MovieType.CHILDRENS, new FlatRate());
+        policies = new PricingPolicy[TYPES.length];
+        for (Movie.MovieType type : TYPES)
+            policies[type.ordinal()] = registry.policy(type);
+    }
+
+    @Benchmark
+    public long switchFormula() {
+        long total = 0;
+        int points = 0;
+        for (int i = 0; i < rentals; i++) {
+            long thisAmount = 0;
+            switch (TYPES[types[i]]) {
+                case REGULAR -> {
+                    thisAmount += 200;
+                    if (days[i] > 2)
+                        thisAmount += (days[i] - 2) * 150L;
+                }
+                case NEW_RELEASE -> thisAmount += days[i] <= 2 ? 200 : 200 + (days[i] - 2) * 300L;
+                case CHILDRENS -> thisAmount += 150;
+            }
+            points++;
+            if (TYPES[types[i]] == Movie.MovieType.NEW_RELEASE && days[i] > 1)
+                points++;
+            total += thisAmount;
+        }
+        return total + points;
+    }
+
+    @Benchmark
+    public long registryTable() {
+        PriceTable table = registry.priceTable();
+        long total = 0;
+        int points = 0;
+        for (int i = 0; i < rentals; i++) {
+            total += table.chargeCents(types[i], days[i]);
+            points += table.frequentRenterPoints(types[i], days[i]);
+        }
+        return total + points;
+    }
+
+    @Benchmark
+    public long interleavedPolicyCalls() {
+        long total = 0;
+        int points = 0;
+        for (int i = 0; i < rentals; i++) {
+            PricingPolicy policy = policies[types[i]];
+            total += policy.chargeCents(days[i]);
+            points += policy.frequentRenterPoints(days[i]);
+        }
+        return total + points;
+    }
+}
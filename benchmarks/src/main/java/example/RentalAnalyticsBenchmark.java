@@ -0,0 +1,90 @@
+package example;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link RentalAnalyticsIndex} queries over 100M rentals against a full scan of the same
+ * rentals held in compact byte columns, and the cost of adding one rental to the index.
+ * Setup prints how long indexing all rentals took.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class RentalAnalyticsBenchmark {
+    static final int SEGMENTS = 8;
+
+    @Param({"100000000"})
+    int rentals;
+
+    RentalAnalyticsIndex index;
+    byte[] segments;
+    byte[] types;
+    byte[] days;
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        final SplittableRandom random = new SplittableRandom();
+    }
+
+    @Setup
+    public void setUp() {
+        index = new RentalAnalyticsIndex(SEGMENTS);
+        segments = new byte[rentals];
+        types = new byte[rentals];
+        days = new byte[rentals];
+        SplittableRandom random = new SplittableRandom(42);
+        Movie.MovieType[] values = Movie.MovieType.values();
+        long start = System.nanoTime();
+        for (int i = 0; i < rentals; i++) {
+            segments[i] = (byte) random.nextInt(SEGMENTS);
+            types[i] = (byte) random.nextInt(values.length);
+            days[i] = (byte) (1 + random.nextInt(30));
+            index.add(segments[i], values[types[i]], days[i]);
+        }
+        System.out.printf("%nindexed %d rentals in %d ms%n", rentals,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+
+    @Benchmark
+    public BillingTotals newReleasesOfFiveDaysOrMore() {
+        return index.totals(Movie.MovieType.NEW_RELEASE, 5, RentalAnalyticsIndex.UNBOUNDED);
+    }
+
+    @Benchmark
+    public BillingTotals oneSegmentDayRange() {
+        return index.totals(3, Movie.MovieType.REGULAR, 3, 7);
+    }
+
+    @Benchmark
+    public BillingTotals everything() {
+        return index.totals();
+    }
+
+    @Benchmark
+    public BillingTotals scanNewReleasesOfFiveDaysOrMore() {
+        int newRelease = Movie.MovieType.NEW_RELEASE.ordinal();
+        long count = 0;
+        long amount = 0;
+        long points = 0;
+        for (int i = 0; i < types.length; i++) {
+            if (types[i] == newRelease && days[i] >= 5) {
+                count++;
+                amount += PriceTable.STANDARD.chargeCents(newRelease, days[i]);
+                points += PriceTable.STANDARD.frequentRenterPoints(newRelease, days[i]);
+            }
+        }
+        return new BillingTotals(count, amount, points);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public void add(Cursor cursor) {
+        index.add(cursor.random.nextInt(SEGMENTS), Movie.MovieType.REGULAR, 1 + cursor.random.nextInt(30));
+    }
+}
@@ -0,0 +1,64 @@
+package example;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link RentalImporter} throughput in rows per second, parsing alone and parsing
+ * pipelined with billing on the common pool. The export is held in memory so the figures
+ * exclude disk reads.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RentalImportBenchmark {
+    static final int ROWS = 1_000_000;
+
+    @Param({"1", "10"})
+    int rentalsPerCustomer;
+
+    @Param({"100", "100000"})
+    int titles;
+
+    byte[] csv;
+    BillingEngine engine;
+
+    @Setup
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(42);
+        StringBuilder text = new StringBuilder("customer,title,type,days\n");
+        for (int i = 0; i < ROWS; i++) {
+            int title = random.nextInt(titles);
+            text.append("Customer ").append(i / rentalsPerCustomer)
+                    .append(",Movie title number ").append(title)
+                    .append(',').append(Movie.MovieType.values()[title % 3])
+                    .append(',').append(1 + random.nextInt(10)).append('\n');
+        }
+        csv = text.toString().getBytes(StandardCharsets.UTF_8);
+        engine = new BillingEngine(false);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public long parse(Blackhole blackhole) throws IOException {
+        return RentalImporter.csv(new MovieCatalog())
+                .parse(Channels.newChannel(new ByteArrayInputStream(csv)), blackhole::consume);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public BillingReport parseAndBill(Blackhole blackhole) throws IOException, InterruptedException {
+        return RentalImporter.csv(new MovieCatalog())
+                .run(Channels.newChannel(new ByteArrayInputStream(csv)), engine, (customer, statement) -> blackhole.consume(statement));
+    }
+}
@@ -0,0 +1,146 @@
+package example;
+
+import com.sun.management.GarbageCollectionNotificationInfo;
+
+import javax.management.NotificationEmitter;
+import javax.management.openmbean.CompositeData;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Soak test of long-lived rental histories: builds the histories once, then bills random
+ * customers for a while, and reports old-generation occupancy and GC pauses. Compare
+ * {@code objects} (a {@link Rental} per rental), {@code ledger} ({@link RentalLedger}) and
+ * {@code offheap} ({@link OffHeapRentalStore}) with the same heap settings.
+ * <p>
+ * Usage: {@code java -Xmx4g -cp target/benchmarks.jar example.RentalStoreSoak
+ * objects|ledger|offheap [customers] [rentalsPerCustomer] [seconds]}
+ */
+public class RentalStoreSoak {
+
+    public static void main(String[] args) throws InterruptedException {
+        if (args.length < 1) {
+            System.err.println("usage: RentalStoreSoak objects|ledger|offheap [customers] [rentalsPerCustomer] [seconds]");
+            System.exit(2);
+        }
+        String store = args[0];
+        int customerCount = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+        int rentalsPerCustomer = args.length > 2 ? Integer.parseInt(args[2]) : 500_000;
+        int seconds = args.length > 3 ? Integer.parseInt(args[3]) : 60;
+
+        AtomicLong maxPauseMillis = new AtomicLong();
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            ((NotificationEmitter) gc).addNotificationListener((notification, handback) -> {
+                if (!GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION.equals(notification.getType()))
+                    return;
+                GarbageCollectionNotificationInfo info =
+                        GarbageCollectionNotificationInfo.from((CompositeData) notification.getUserData());
+                // the explicit collections around the soak are not part of it
+                if (!"System.gc()".equals(info.getGcCause()))
+                    maxPauseMillis.accumulateAndGet(info.getGcInfo().getDuration(), Math::max);
+            }, null, null);
+        }
+
+        long buildStart = System.nanoTime();
+        Customer[] customers = build(store, customerCount, rentalsPerCustomer);
+        System.out.printf("%s: built %d x %d rentals in %d ms%n", store, customerCount, rentalsPerCustomer,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - buildStart));
+
+        System.gc();
+        long gcCountBefore = gcCount();
+        long gcMillisBefore = gcMillis();
+        maxPauseMillis.set(0);
+
+        SplittableRandom random = new SplittableRandom(7);
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+        long billed = 0;
+        long checksum = 0;
+        while (System.nanoTime() < deadline) {
+            Customer customer = customers[random.nextInt(customers.length)];
+            checksum += customer.totals().getAmountCents();
+            // short-lived garbage alongside the long-lived histories, as a server would produce
+            for (int i = 0; i < 1_000; i++)
+                checksum += ("Rental Record for " + customer.getName() + i).length();
+            billed++;
+        }
+
+        System.out.printf("%s: billed %d customers (checksum %d)%n", store, billed, checksum);
+        System.out.printf("GCs during soak: %d, total %d ms, max pause %d ms%n",
+                gcCount() - gcCountBefore, gcMillis() - gcMillisBefore, maxPauseMillis.get());
+        System.gc();
+        System.out.printf("old gen used after full GC: %d MB%n", oldGenUsed() >> 20);
+        // keep the histories reachable until the figures have been read
+        System.out.println(customers.length == 0 ? "" : "done");
+    }
+
+    private static Customer[] build(String store, int customerCount, int rentalsPerCustomer) {
+        MovieCatalog catalog = new MovieCatalog();
+        Movie[] movies = new Movie[10_000];
+        for (int i = 0; i < movies.length; i++) {
+            movies[i] = new Movie("Archived movie " + i, Movie.MovieType.values()[i % 3]);
+            catalog.register(movies[i].getTitle(), movies[i].getPriceCode());
+        }
+        SplittableRandom random = new SplittableRandom(42);
+        Customer[] customers = new Customer[customerCount];
+        for (int c = 0; c < customerCount; c++) {
+            String name = "Archival customer " + c;
+            switch (store) {
+                case "objects" -> {
+                    List<Rental> rentals = new ArrayList<>(rentalsPerCustomer);
+                    for (int i = 0; i < rentalsPerCustomer; i++)
+                        rentals.add(new Rental(movies[random.nextInt(movies.length)], 1 + random.nextInt(30)));
+                    customers[c] = new Customer(name, rentals);
+                }
+                case "ledger" -> {
+                    RentalLedger ledger = new RentalLedger(rentalsPerCustomer);
+                    for (int i = 0; i < rentalsPerCustomer; i++) {
+                        Movie movie = movies[random.nextInt(movies.length)];
+                        ledger.add(movie.getTitle(), movie.getPriceCode(), 1 + random.nextInt(30));
+                    }
+                    customers[c] = new Customer(name, ledger);
+                }
+                case "offheap" -> {
+                    OffHeapRentalStore rentals = new OffHeapRentalStore(catalog);
+                    for (int i = 0; i < rentalsPerCustomer; i++) {
+                        int id = random.nextInt(movies.length);
+                        rentals.add(id, movies[id].getPriceCode(), 1 + random.nextInt(30));
+                    }
+                    customers[c] = new Customer(name, rentals);
+                }
+                default -> throw new IllegalArgumentException("Unknown store: " + store);
+            }
+        }
+        return customers;
+    }
+
+    private static long oldGenUsed() {
+        long used = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            String name = pool.getName();
+            if (pool.getType() == MemoryType.HEAP && (name.contains("Old") || name.contains("Tenured")))
+                used += pool.getUsage().getUsed();
+        }
+        return used;
+    }
+
+    private static long gcCount() {
+        long count = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans())
+            count += Math.max(gc.getCollectionCount(), 0);
+        return count;
+    }
+
+    private static long gcMillis() {
+        long millis = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans())
+            millis += Math.max(gc.getCollectionTime(), 0);
+        return millis;
+    }
+}
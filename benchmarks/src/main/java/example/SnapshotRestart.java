@@ -0,0 +1,75 @@
+package example;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures a warm restart from a {@link BillingSnapshot}: run {@code write} once, then
+ * {@code load} in a fresh JVM, which reports how long after JVM start the first statement
+ * was served, and how long billing every customer from the mapped file takes.
+ * <p>
+ * Usage: {@code java -cp target/benchmarks.jar example.SnapshotRestart write <file> [customers] [rentalsPerCustomer]}
+ * and {@code java -cp target/benchmarks.jar example.SnapshotRestart load <file>}
+ */
+public class SnapshotRestart {
+    static final int MOVIES = 10_000;
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2 || !(args[0].equals("write") || args[0].equals("load"))) {
+            System.err.println("usage: SnapshotRestart write <file> [customers] [rentalsPerCustomer] | load <file>");
+            System.exit(2);
+        }
+        Path file = Path.of(args[1]);
+        if (args[0].equals("write"))
+            write(file, args.length > 2 ? Integer.parseInt(args[2]) : 100_000, args.length > 3 ? Integer.parseInt(args[3]) : 200);
+        else
+            load(file);
+    }
+
+    private static void write(Path file, int customers, int rentalsPerCustomer) throws IOException {
+        long start = System.nanoTime();
+        MovieCatalog catalog = new MovieCatalog(MOVIES);
+        for (int i = 0; i < MOVIES; i++)
+            catalog.register("Movie title number " + i, Movie.MovieType.values()[i % 3]);
+        SplittableRandom random = new SplittableRandom(42);
+        try (BillingSnapshotWriter writer = new BillingSnapshotWriter(file, catalog)) {
+            for (int c = 0; c < customers; c++) {
+                RentalLedger rentals = new RentalLedger(rentalsPerCustomer);
+                for (int i = 0; i < rentalsPerCustomer; i++) {
+                    Movie movie = catalog.movie(random.nextInt(MOVIES));
+                    rentals.add(movie.getTitle(), movie.getPriceCode(), 1 + random.nextInt(30));
+                }
+                writer.write(new Customer("Customer " + c, rentals));
+            }
+        }
+        System.out.printf("wrote %d customers, %d rentals, %d MB in %d ms%n", customers, (long) customers * rentalsPerCustomer,
+                Files.size(file) >> 20, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+
+    private static void load(Path file) throws IOException {
+        long mainStart = ManagementFactory.getRuntimeMXBean().getUptime();
+        long start = System.nanoTime();
+        try (BillingSnapshot snapshot = new BillingSnapshot(file)) {
+            long loaded = System.nanoTime();
+            int index = new SplittableRandom().nextInt(snapshot.getCustomers());
+            String statement = snapshot.customer(index).statement();
+            long served = System.nanoTime();
+            long sinceJvmStart = ManagementFactory.getRuntimeMXBean().getUptime();
+            System.out.printf("%d customers, %d rentals: loaded in %.1f ms, first statement (%d chars) after %.1f ms%n",
+                    snapshot.getCustomers(), snapshot.getRentals(), (loaded - start) / 1e6, statement.length(),
+                    (served - start) / 1e6);
+            System.out.printf("first statement %d ms after JVM start (main entered at %d ms)%n", sinceJvmStart, mainStart);
+
+            long billStart = System.nanoTime();
+            long amount = 0;
+            for (int i = 0; i < snapshot.getCustomers(); i++)
+                amount += snapshot.customer(i).totals().getAmountCents();
+            System.out.printf("billed all customers in %d ms (total %s)%n",
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - billStart), Money.toString(amount));
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package example;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End-to-end {@link Customer#statement()} cost across statement sizes, movie type mixes
+ * and title lengths. Run with {@code -prof gc} to see bytes allocated per statement.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StatementBenchmark {
+
+    public enum Mix {
+        REGULAR, NEW_RELEASE, CHILDRENS, MIXED;
+
+        Movie.MovieType pick(SplittableRandom random) {
+            Movie.MovieType[] types = Movie.MovieType.values();
+            return this == MIXED ? types[random.nextInt(types.length)] : types[ordinal()];
+        }
+    }
+
+    public enum Titles {
+        SHORT(""), LONG(": The Extended Director's Cut, Remastered Anniversary Edition");
+
+        private final String suffix;
+
+        Titles(String suffix) {
+            this.suffix = suffix;
+        }
+    }
+
+    static final int DISTINCT_MOVIES = 1000;
+
+    @Param({"1", "100", "10000", "1000000"})
+    int rentals;
+
+    @Param({"REGULAR", "NEW_RELEASE", "CHILDRENS", "MIXED"})
+    Mix mix;
+
+    @Param({"SHORT", "LONG"})
+    Titles titles;
+
+    Customer customer;
+    StringBuilder reused;
+
+    @Setup
+    public void setUp() {
+        customer = new Customer("Benchmark Customer", rentals(rentals, mix, titles, new SplittableRandom(42)));
+        reused = new StringBuilder(customer.estimatedStatementLength());
+    }
+
+    static List<Rental> rentals(int count, Mix mix, Titles titles, SplittableRandom random) {
+        Movie[] movies = new Movie[Math.min(count, DISTINCT_MOVIES)];
+        for (int i = 0; i < movies.length; i++)
+            movies[i] = new Movie("Movie " + i + titles.suffix, mix.pick(random));
+        List<Rental> rentals = new ArrayList<>(count);
+        for (int i = 0; i < count; i++)
+            rentals.add(new Rental(movies[random.nextInt(movies.length)], 1 + random.nextInt(14)));
+        return rentals;
+    }
+
+    @Benchmark
+    public String statement() {
+        return customer.statement();
+    }
+
+    @Benchmark
+    public int statementIntoReusedBuilder() {
+        reused.setLength(0);
+        customer.statement(reused);
+        return reused.length();
+    }
+}
@@ -0,0 +1,63 @@
+package example;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encode time of each {@link StatementEncoder} into a reused direct buffer, against
+ * {@code statement().getBytes(UTF_8)} as the String-based baseline. The encoded size of
+ * each format is printed once per trial as "bytes per statement".
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StatementEncoderBenchmark {
+
+    public enum Format {
+        TEXT(StatementEncoder.TEXT), JSON(StatementEncoder.JSON), BINARY(StatementEncoder.BINARY);
+
+        final StatementEncoder encoder;
+
+        Format(StatementEncoder encoder) {
+            this.encoder = encoder;
+        }
+    }
+
+    @Param({"10", "1000"})
+    int rentals;
+
+    @Param
+    Format format;
+
+    Customer customer;
+    ByteBuffer buffer;
+
+    @Setup
+    public void setUp() {
+        customer = new Customer("Customer", StatementBenchmark.rentals(rentals, StatementBenchmark.Mix.MIXED,
+                StatementBenchmark.Titles.SHORT, new SplittableRandom(42)));
+        buffer = ByteBuffer.allocateDirect(1 << 20);
+        format.encoder.encode(customer, buffer);
+        System.out.printf("%n%s: %.1f bytes per statement (%.1f per rental)%n", format, (double) buffer.position(),
+                (double) buffer.position() / rentals);
+    }
+
+    @Benchmark
+    public ByteBuffer encode() {
+        buffer.clear();
+        format.encoder.encode(customer, buffer);
+        return buffer;
+    }
+
+    @Benchmark
+    public byte[] statementBytes() {
+        return customer.statement().getBytes(StandardCharsets.UTF_8);
+    }
+}
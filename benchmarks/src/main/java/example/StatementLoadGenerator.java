@@ -0,0 +1,128 @@
+package example;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntFunction;
+
+/**
+ * Closed-loop load generator for {@link StatementServer}: at concurrency 1, 2, 4, ... up to
+ * {@code maxConcurrency}, each client sends a request for {@code batch} random customers,
+ * waits for the full response and immediately sends the next one. Reports throughput and
+ * p50/p99/p999 latency per step.
+ * <p>
+ * Without a URL an in-process server over synthetic customers is started, with
+ * {@code sun.net.httpserver.nodelay} turned on unless it is set on the command line (see
+ * {@link StatementServer}).
+ * <p>
+ * Usage: {@code java -cp target/benchmarks.jar example.StatementLoadGenerator [maxConcurrency] [batch] [secondsPerStep] [url]}
+ */
+public class StatementLoadGenerator {
+    static final int CUSTOMERS = 10_000;
+    static final int RENTALS_PER_CUSTOMER = 20;
+    static final int MOVIES = 1_000;
+
+    public static void main(String[] args) throws Exception {
+        int maxConcurrency = args.length > 0 ? Integer.parseInt(args[0]) : 64;
+        int batch = args.length > 1 ? Integer.parseInt(args[1]) : 1;
+        int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 5;
+        StatementServer server = null;
+        ExecutorService serverExecutor = null;
+        String url;
+        if (args.length > 3) {
+            url = args[3];
+        } else {
+            if (System.getProperty("sun.net.httpserver.nodelay") == null)
+                System.setProperty("sun.net.httpserver.nodelay", "true");
+            serverExecutor = Executors.newFixedThreadPool(Math.max(4, Runtime.getRuntime().availableProcessors() * 2));
+            server = new StatementServer(new InetSocketAddress("127.0.0.1", 0), customers(), serverExecutor);
+            server.start();
+            url = "http://127.0.0.1:" + server.getPort() + StatementServer.PATH;
+        }
+        try {
+            HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+            run(client, url, 1, batch, 1, false); // warm-up
+            System.out.printf("%-11s %5s %12s %10s %10s %10s %10s%n",
+                    "concurrency", "batch", "requests/s", "p50 us", "p99 us", "p999 us", "max us");
+            for (int concurrency = 1; concurrency <= maxConcurrency; concurrency *= 2)
+                run(client, url, concurrency, batch, seconds, true);
+        } finally {
+            if (server != null) {
+                server.close();
+                serverExecutor.shutdown();
+            }
+        }
+    }
+
+    private static IntFunction<Customer> customers() {
+        SplittableRandom random = new SplittableRandom(42);
+        Customer[] customers = new Customer[CUSTOMERS];
+        for (int c = 0; c < CUSTOMERS; c++) {
+            RentalLedger rentals = new RentalLedger(RENTALS_PER_CUSTOMER);
+            for (int i = 0; i < RENTALS_PER_CUSTOMER; i++) {
+                int movie = random.nextInt(MOVIES);
+                rentals.add("Movie title number " + movie, Movie.MovieType.values()[movie % 3], 1 + random.nextInt(30));
+            }
+            customers[c] = new Customer("Customer " + c, rentals);
+        }
+        return id -> id < CUSTOMERS ? customers[id] : null;
+    }
+
+    private static void run(HttpClient client, String url, int concurrency, int batch, int seconds, boolean report) throws Exception {
+        LatencyHistogram latencies = new LatencyHistogram();
+        AtomicLong errors = new AtomicLong();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+        ExecutorService clients = Executors.newFixedThreadPool(concurrency);
+        List<Future<?>> loops = new ArrayList<>(concurrency);
+        long start = System.nanoTime();
+        for (int i = 0; i < concurrency; i++) {
+            long seed = i;
+            loops.add(clients.submit(() -> {
+                SplittableRandom random = new SplittableRandom(seed);
+                StringBuilder path = new StringBuilder(url.length() + batch * 6);
+                while (System.nanoTime() < deadline) {
+                    path.setLength(0);
+                    path.append(url).append('/');
+                    for (int b = 0; b < batch; b++)
+                        path.append(b == 0 ? "" : ",").append(random.nextInt(CUSTOMERS));
+                    HttpRequest request = HttpRequest.newBuilder(URI.create(path.toString())).build();
+                    long sent = System.nanoTime();
+                    try {
+                        HttpResponse<byte[]> response = client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+                        if (response.statusCode() != 200)
+                            errors.incrementAndGet();
+                    } catch (IOException e) {
+                        errors.incrementAndGet();
+                    }
+                    latencies.record(System.nanoTime() - sent);
+                }
+                return null;
+            }));
+        }
+        for (Future<?> loop : loops)
+            loop.get();
+        long elapsed = System.nanoTime() - start;
+        clients.shutdown();
+        if (!report)
+            return;
+        LatencyHistogram.Snapshot snapshot = latencies.snapshot();
+        System.out.printf("%-11d %5d %12.0f %10d %10d %10d %10d%s%n", concurrency, batch,
+                snapshot.getCount() * 1e9 / elapsed,
+                TimeUnit.NANOSECONDS.toMicros(snapshot.valueAtPercentile(50)),
+                TimeUnit.NANOSECONDS.toMicros(snapshot.valueAtPercentile(99)),
+                TimeUnit.NANOSECONDS.toMicros(snapshot.valueAtPercentile(99.9)),
+                TimeUnit.NANOSECONDS.toMicros(snapshot.getMax()),
+                errors.get() == 0 ? "" : "  errors=" + errors.get());
+    }
+}
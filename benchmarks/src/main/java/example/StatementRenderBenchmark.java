@@ -0,0 +1,51 @@
+package example;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Allocation per statement with a fresh buffer ({@link Customer#statement()}) versus the
+ * reused buffers of {@link StatementRenderer}. Run with {@code -prof gc} and compare
+ * {@code gc.alloc.rate.norm}: with reused buffers only the returned String is allocated.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+public class StatementRenderBenchmark {
+
+    @Param({"10", "1000"})
+    int rentals;
+
+    Customer customer;
+    StatementRenderer perThread;
+    StatementRenderer pooled;
+
+    @Setup
+    public void setUp() {
+        customer = new Customer("Benchmark Customer", StatementBenchmark.rentals(rentals,
+                StatementBenchmark.Mix.MIXED, StatementBenchmark.Titles.SHORT, new SplittableRandom(42)));
+        perThread = StatementRenderer.perThread();
+        pooled = StatementRenderer.pooled(8);
+    }
+
+    @Benchmark
+    public String freshBuffer() {
+        return customer.statement();
+    }
+
+    @Benchmark
+    public String perThreadBuffer() {
+        return perThread.render(customer);
+    }
+
+    @Benchmark
+    public String pooledBuffer() {
+        return pooled.render(customer);
+    }
+}
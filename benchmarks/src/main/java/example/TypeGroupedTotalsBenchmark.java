@@ -0,0 +1,47 @@
+package example;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Totalling a random mix of movie types in statement order ({@link Customer#totals()})
+ * versus partitioned by type ({@link TypeGroupedTotals}).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TypeGroupedTotalsBenchmark {
+
+    @Param({"1000", "100000"})
+    int rentals;
+
+    @Param({"14", "120"})
+    int maxDaysRented;
+
+    Customer customer;
+
+    @Setup
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(42);
+        RentalLedger ledger = new RentalLedger(rentals);
+        for (int i = 0; i < rentals; i++)
+            ledger.add("Movie " + random.nextInt(1000), Movie.MovieType.values()[random.nextInt(3)],
+                    random.nextInt(maxDaysRented + 1));
+        customer = new Customer("Benchmark Customer", ledger);
+    }
+
+    @Benchmark
+    public BillingTotals statementOrder() {
+        return customer.totals();
+    }
+
+    @Benchmark
+    public BillingTotals groupedByType() {
+        return TypeGroupedTotals.of(customer);
+    }
+}
@@ -0,0 +1,86 @@
+package example;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.function.Supplier;
+import java.util.stream.Collector;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * A household or corporate account billed as the sum of its member customers.
+ * <p>
+ * Members are supplied as a stream that is opened afresh for each operation, so an
+ * account can be backed by storage far larger than memory: {@link #totals()} holds one
+ * partial sum per parallel split and {@link #statement(Appendable)} one member at a time.
+ */
+class Account {
+    private static final String HEADER = "Account Record for ";
+
+    private final String name;
+    private final Supplier<? extends Stream<Customer>> members;
+
+    public Account(String name, Collection<Customer> members) {
+        this(name, members::stream);
+    }
+
+    public Account(String name, Supplier<? extends Stream<Customer>> members) {
+        this.name = name;
+        this.members = members;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Totals of each customer, combined associatively so the reduction can be split
+     * across a fork-join pool.
+     */
+    public static Collector<Customer, ?, BillingTotals> totalling() {
+        return Collectors.mapping(Customer::totals, BillingTotals.summing());
+    }
+
+    /**
+     * Consolidated totals, computed in parallel on the common fork-join pool.
+     */
+    public BillingTotals totals() {
+        try (Stream<Customer> customers = members.get()) {
+            return customers.parallel().collect(totalling());
+        }
+    }
+
+    public String statement() {
+        StringBuilder result = new StringBuilder();
+        try {
+            statement(result);
+        } catch (IOException e) {
+            // StringBuilder never throws
+            throw new UncheckedIOException(e);
+        }
+        return result.toString();
+    }
+
+    /**
+     * Streams the consolidated statement: one line per member with what they owe, in
+     * member order, then the account's totals. Members are priced as they are written,
+     * without rendering their own statements.
+     */
+    public void statement(Appendable out) throws IOException {
+        long totalAmount = 0;
+        long frequentRenterPoints = 0;
+        out.append(HEADER).append(name).append('\n');
+        try (Stream<Customer> customers = members.get()) {
+            for (Iterator<Customer> it = customers.iterator(); it.hasNext(); ) {
+                Customer customer = it.next();
+                BillingTotals totals = customer.totals();
+                Customer.appendLine(out, customer.getName(), totals.getAmountCents());
+                totalAmount += totals.getAmountCents();
+                frequentRenterPoints += totals.getFrequentRenterPoints();
+            }
+        }
+        Customer.appendFooter(out, totalAmount, frequentRenterPoints);
+    }
+}
@@ -0,0 +1,130 @@
+package example;
+
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiConsumer;
+import java.util.stream.Stream;
+
+/**
+ * Renders statements for a stream of customers on a {@link ForkJoinPool}.
+ * <p>
+ * At most {@code maxInFlight} statements are rendered or waiting to be consumed at any
+ * time, so a slow sink throttles how fast customers are pulled from the source.
+ * In ordered mode the sink is called on the calling thread in source order; otherwise it
+ * is called from the worker threads as soon as each statement is ready and must be
+ * thread-safe. Workers render into per-thread buffers (see {@link StatementRenderer}).
+ * <p>
+ * If the source or a statement fails, {@code run} waits for the statements already handed
+ * to the pool before it throws, so no work or sink call outlives it.
+ */
+class BillingEngine {
+    private final ForkJoinPool pool;
+    private final int maxInFlight;
+    private final boolean ordered;
+    private final StatementRenderer renderer = StatementRenderer.perThread();
+
+    public BillingEngine(ForkJoinPool pool, int maxInFlight, boolean ordered) {
+        if (maxInFlight < 1)
+            throw new IllegalArgumentException("maxInFlight must be positive: " + maxInFlight);
+        this.pool = pool;
+        this.maxInFlight = maxInFlight;
+        this.ordered = ordered;
+    }
+
+    public BillingEngine(boolean ordered) {
+        this(ForkJoinPool.commonPool(), ForkJoinPool.getCommonPoolParallelism() * 64, ordered);
+    }
+
+    public BillingReport run(Stream<Customer> customers, BiConsumer<Customer, String> sink) throws InterruptedException {
+        return run(customers.iterator(), sink);
+    }
+
+    public BillingReport run(Iterator<Customer> customers, BiConsumer<Customer, String> sink) throws InterruptedException {
+        long start = System.nanoTime();
+        long[] counts = ordered ? runOrdered(customers, sink) : runUnordered(customers, sink);
+        return new BillingReport(counts[0], counts[1], System.nanoTime() - start, pool.getParallelism());
+    }
+
+    private long[] runOrdered(Iterator<Customer> customers, BiConsumer<Customer, String> sink) {
+        ArrayDeque<CompletableFuture<String>> inFlight = new ArrayDeque<>(maxInFlight);
+        ArrayDeque<Customer> pending = new ArrayDeque<>(maxInFlight);
+        long statements = 0;
+        long characters = 0;
+        try {
+            while (customers.hasNext()) {
+                if (inFlight.size() == maxInFlight) {
+                    characters += emit(pending.poll(), inFlight.poll(), sink);
+                    statements++;
+                }
+                Customer customer = customers.next();
+                pending.add(customer);
+                inFlight.add(CompletableFuture.supplyAsync(() -> renderer.render(customer), pool));
+            }
+            while (!inFlight.isEmpty()) {
+                characters += emit(pending.poll(), inFlight.poll(), sink);
+                statements++;
+            }
+        } catch (RuntimeException | Error e) {
+            // wait for statements already handed to the pool, so none outlives the run
+            // (cancelling a CompletableFuture does not stop a render that has started)
+            for (CompletableFuture<String> statement : inFlight) {
+                try {
+                    statement.join();
+                } catch (RuntimeException ignored) {
+                    // already failing with e
+                }
+            }
+            throw e;
+        }
+        return new long[] {statements, characters};
+    }
+
+    private static int emit(Customer customer, CompletableFuture<String> statement, BiConsumer<Customer, String> sink) {
+        String text = statement.join();
+        sink.accept(customer, text);
+        return text.length();
+    }
+
+    private long[] runUnordered(Iterator<Customer> customers, BiConsumer<Customer, String> sink) throws InterruptedException {
+        Semaphore permits = new Semaphore(maxInFlight);
+        LongAdder characters = new LongAdder();
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        long statements = 0;
+        try {
+            while (customers.hasNext() && failure.get() == null) {
+                permits.acquire();
+                Customer customer;
+                try {
+                    customer = customers.next();
+                } catch (RuntimeException | Error e) {
+                    permits.release();
+                    throw e;
+                }
+                statements++;
+                pool.execute(() -> {
+                    try {
+                        String text = renderer.render(customer);
+                        sink.accept(customer, text);
+                        characters.add(text.length());
+                    } catch (Throwable t) {
+                        failure.compareAndSet(null, t);
+                    } finally {
+                        permits.release();
+                    }
+                });
+            }
+        } finally {
+            // wait for every task, so the sink is never called after run() returns or throws
+            permits.acquireUninterruptibly(maxInFlight);
+        }
+        if (failure.get() != null)
+            throw new CompletionException(failure.get());
+        return new long[] {statements, characters.sum()};
+    }
+}
@@ -0,0 +1,231 @@
+package example;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Low-overhead counters for statement rendering: a latency histogram, rentals, revenue
+ * and points per movie type, and characters rendered. Each statement also commits a
+ * {@link StatementEvent} to JFR.
+ * <p>
+ * Metrics are off by default, and then cost one volatile read per statement. When
+ * enabled, every thread counts into its own {@link ThreadCounters}: the statement being
+ * rendered is gathered in a scratch array and added to the thread's totals once per
+ * statement with plain (opaque) stores, so recording never contends or locks.
+ * Snapshots sum the totals of all threads. Counters of threads that have terminated are
+ * folded into a shared total and dropped when the next thread registers or a snapshot is
+ * taken, so thread-per-task executors do not grow the list without bound.
+ * <p>
+ * Reading the clock costs more than the rest of the bookkeeping, so by default only one
+ * statement in {@link #DEFAULT_LATENCY_SAMPLING} per thread is timed; the histogram then
+ * holds a sample of the latencies, while all other figures count every statement.
+ */
+final class BillingMetrics {
+    private static final Movie.MovieType[] TYPES = Movie.MovieType.values();
+    private static final int RENTALS = 0;
+    private static final int AMOUNT = TYPES.length;
+    private static final int POINTS = 2 * TYPES.length;
+    private static final int FIGURES = 3 * TYPES.length;
+    private static final int STATEMENTS = FIGURES;
+    private static final int CHARACTERS = FIGURES + 1;
+
+    static final int DEFAULT_LATENCY_SAMPLING = 16;
+
+    private static final VarHandle TOTALS = MethodHandles.arrayElementVarHandle(long[].class);
+
+    private static volatile BillingMetrics current;
+
+    private final LatencyHistogram latency = new LatencyHistogram();
+    private final int samplingMask;
+    private final List<ThreadCounters> threads = new ArrayList<>(); // guarded by this
+    private final long[] retired = new long[FIGURES + 2]; // guarded by this
+    private final ThreadLocal<ThreadCounters> counters = ThreadLocal.withInitial(this::register);
+
+    /**
+     * Per-thread figures; only the owning thread writes them.
+     */
+    static final class ThreadCounters {
+        final long[] statement = new long[FIGURES];
+        private final long[] totals = new long[FIGURES + 2];
+        private final WeakReference<Thread> owner = new WeakReference<>(Thread.currentThread());
+        private int statements;
+        boolean timed;
+
+        private void add(int index, long value) {
+            if (value != 0)
+                TOTALS.setOpaque(totals, index, (long) TOTALS.getOpaque(totals, index) + value);
+        }
+
+        private boolean isOwnerAlive() {
+            Thread thread = owner.get();
+            return thread != null && thread.isAlive();
+        }
+    }
+
+    BillingMetrics(int latencySampling) {
+        if (Integer.bitCount(latencySampling) != 1)
+            throw new IllegalArgumentException("latencySampling must be a power of two: " + latencySampling);
+        samplingMask = latencySampling - 1;
+    }
+
+    /**
+     * Starts recording with fresh counters and returns them.
+     */
+    public static BillingMetrics enable() {
+        return enable(DEFAULT_LATENCY_SAMPLING);
+    }
+
+    /**
+     * Starts recording, timing one statement in {@code latencySampling} (a power of two)
+     * per thread.
+     */
+    public static BillingMetrics enable(int latencySampling) {
+        BillingMetrics metrics = new BillingMetrics(latencySampling);
+        current = metrics;
+        return metrics;
+    }
+
+    public static void disable() {
+        current = null;
+    }
+
+    /**
+     * @return the metrics being recorded, or {@code null} when disabled
+     */
+    static BillingMetrics current() {
+        return current;
+    }
+
+    /**
+     * The calling thread's counters, with the per-statement scratch cleared (a statement that
+     * failed while rendering may have left counts in it) and {@code timed} telling whether this statement's latency is sampled.
+     */
+    ThreadCounters begin() {
+        ThreadCounters thread = counters.get();
+        Arrays.fill(thread.statement, 0);
+        thread.timed = (thread.statements++ & samplingMask) == 0;
+        return thread;
+    }
+
+    static void count(long[] statement, Movie.MovieType type, long amountCents, int points) {
+        int ordinal = type.ordinal();
+        statement[RENTALS + ordinal]++;
+        statement[AMOUNT + ordinal] += amountCents;
+        statement[POINTS + ordinal] += points;
+    }
+
+    void end(ThreadCounters thread, long startNanos, long renderedCharacters) {
+        if (thread.timed)
+            latency.record(System.nanoTime() - startNanos);
+        for (int i = 0; i < FIGURES; i++)
+            thread.add(i, thread.statement[i]);
+        thread.add(STATEMENTS, 1);
+        thread.add(CHARACTERS, renderedCharacters);
+    }
+
+    static BillingTotals totals(long[] statement) {
+        long rentals = 0;
+        long amountCents = 0;
+        long points = 0;
+        for (int ordinal = 0; ordinal < TYPES.length; ordinal++) {
+            rentals += statement[RENTALS + ordinal];
+            amountCents += statement[AMOUNT + ordinal];
+            points += statement[POINTS + ordinal];
+        }
+        return new BillingTotals(rentals, amountCents, points);
+    }
+
+    private synchronized ThreadCounters register() {
+        retireTerminatedThreads();
+        ThreadCounters thread = new ThreadCounters();
+        threads.add(thread);
+        return thread;
+    }
+
+    /**
+     * Folds the counters of terminated threads into {@code retired}. A thread that is no
+     * longer alive has finished all its writes, so its totals are final.
+     */
+    private void retireTerminatedThreads() {
+        threads.removeIf(thread -> {
+            if (thread.isOwnerAlive())
+                return false;
+            for (int i = 0; i < retired.length; i++)
+                retired[i] += (long) TOTALS.getOpaque(thread.totals, i);
+            return true;
+        });
+    }
+
+    /**
+     * Number of threads whose counters are kept individually.
+     */
+    synchronized int threadCount() {
+        return threads.size();
+    }
+
+    public synchronized Snapshot snapshot() {
+        retireTerminatedThreads();
+        long[] sums = retired.clone();
+        for (ThreadCounters thread : threads) {
+            for (int i = 0; i < sums.length; i++)
+                sums[i] += (long) TOTALS.getOpaque(thread.totals, i);
+        }
+        return new Snapshot(latency.snapshot(), sums);
+    }
+
+    static final class Snapshot {
+        private final LatencyHistogram.Snapshot latency;
+        private final long[] sums;
+
+        private Snapshot(LatencyHistogram.Snapshot latency, long[] sums) {
+            this.latency = latency;
+            this.sums = sums;
+        }
+
+        public long getStatements() {
+            return sums[STATEMENTS];
+        }
+
+        /**
+         * Characters rendered into {@code CharSequence} targets such as StringBuilder.
+         */
+        public long getCharacters() {
+            return sums[CHARACTERS];
+        }
+
+        public LatencyHistogram.Snapshot getLatencyNanos() {
+            return latency;
+        }
+
+        public long getRentals(Movie.MovieType type) {
+            return sums[RENTALS + type.ordinal()];
+        }
+
+        public long getAmountCents(Movie.MovieType type) {
+            return sums[AMOUNT + type.ordinal()];
+        }
+
+        public long getFrequentRenterPoints(Movie.MovieType type) {
+            return sums[POINTS + type.ordinal()];
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder result = new StringBuilder();
+            result.append(getStatements()).append(" statements, p50 ").append(latency.valueAtPercentile(50))
+                    .append(" ns, p99 ").append(latency.valueAtPercentile(99))
+                    .append(" ns, max ").append(latency.getMax()).append(" ns, ")
+                    .append(getCharacters()).append(" chars");
+            for (Movie.MovieType type : TYPES) {
+                result.append("; ").append(type).append(": ").append(getRentals(type)).append(" rentals, ")
+                        .append(Money.toString(getAmountCents(type))).append(" revenue, ")
+                        .append(getFrequentRenterPoints(type)).append(" points");
+            }
+            return result.toString();
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package example;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput figures of one {@link BillingEngine} run.
+ */
+final class BillingReport {
+    private final long statements;
+    private final long characters;
+    private final long elapsedNanos;
+    private final int parallelism;
+
+    BillingReport(long statements, long characters, long elapsedNanos, int parallelism) {
+        this.statements = statements;
+        this.characters = characters;
+        this.elapsedNanos = elapsedNanos;
+        this.parallelism = parallelism;
+    }
+
+    public long getStatements() {
+        return statements;
+    }
+
+    public long getCharacters() {
+        return characters;
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    public double statementsPerSecond() {
+        return elapsedNanos == 0 ? 0 : statements * (double) TimeUnit.SECONDS.toNanos(1) / elapsedNanos;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d statements (%d chars) in %d ms on %d threads: %.0f statements/s",
+                statements, characters, TimeUnit.NANOSECONDS.toMillis(elapsedNanos), parallelism,
+                statementsPerSecond());
+    }
+}
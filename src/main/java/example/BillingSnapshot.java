@@ -0,0 +1,204 @@
+package example;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import static example.BillingSnapshotWriter.CUSTOMER_SIZE;
+import static example.BillingSnapshotWriter.HEADER_SIZE;
+import static example.BillingSnapshotWriter.RENTAL_SIZE;
+import static example.BillingSnapshotWriter.TYPE_BITS;
+import static java.nio.file.StandardOpenOption.READ;
+
+/**
+ * Billing state loaded from a {@link BillingSnapshotWriter} file by memory-mapping it.
+ * <p>
+ * Only the movie table is decoded up front; customers are views over the mapped pages
+ * that read names and rentals on access, so loading takes time proportional to the
+ * number of movies rather than rentals, and pages are faulted in as customers are billed.
+ * Rentals are mapped in segments of {@code 2^segmentShift} records, so files of any size
+ * can be loaded.
+ */
+class BillingSnapshot implements Closeable {
+    /**
+     * 2^26 rentals of 8 bytes: 512 MB per mapped segment.
+     */
+    static final int DEFAULT_SEGMENT_SHIFT = 26;
+
+    private static final Movie.MovieType[] TYPES = Movie.MovieType.values();
+    private static final int TYPE_MASK = (1 << TYPE_BITS) - 1;
+
+    private final FileChannel channel;
+    private final PriceTable prices;
+    private final MovieCatalog catalog;
+    private final ByteBuffer[] rentalSegments;
+    private final int segmentShift;
+    private final long segmentMask;
+    private final ByteBuffer customerTable;
+    private final ByteBuffer names;
+    private final long rentals;
+    private final int customers;
+    private volatile Map<String, Integer> customerIndex;
+
+    public BillingSnapshot(Path file) throws IOException {
+        this(file, PriceTable.STANDARD);
+    }
+
+    public BillingSnapshot(Path file, PriceTable prices) throws IOException {
+        this(file, prices, DEFAULT_SEGMENT_SHIFT);
+    }
+
+    BillingSnapshot(Path file, PriceTable prices, int segmentShift) throws IOException {
+        this.prices = prices;
+        this.segmentShift = segmentShift;
+        this.segmentMask = (1L << segmentShift) - 1;
+        channel = FileChannel.open(file, READ);
+        try {
+            long size = channel.size();
+            if (size < HEADER_SIZE)
+                throw new IOException("Not a billing snapshot (size " + size + "): " + file);
+            ByteBuffer header = map(0, HEADER_SIZE);
+            if (header.getInt(0) != BillingSnapshotWriter.MAGIC || header.getInt(4) != BillingSnapshotWriter.VERSION)
+                throw new IOException("Not a billing snapshot (bad header): " + file);
+            rentals = header.getLong(8);
+            customers = header.getInt(16);
+            int movies = header.getInt(20);
+            long rentalsOffset = header.getLong(24);
+            long customersOffset = header.getLong(32);
+            long namesOffset = header.getLong(40);
+            long moviesOffset = header.getLong(48);
+            if (rentalsOffset + rentals * RENTAL_SIZE != customersOffset
+                    || customersOffset + (long) customers * CUSTOMER_SIZE != namesOffset
+                    || namesOffset > moviesOffset || moviesOffset > size)
+                throw new IOException("Not a billing snapshot (inconsistent sections): " + file);
+
+            long perSegment = 1L << segmentShift;
+            rentalSegments = new ByteBuffer[(int) ((rentals + perSegment - 1) >>> segmentShift)];
+            for (int i = 0; i < rentalSegments.length; i++) {
+                long first = (long) i << segmentShift;
+                rentalSegments[i] = map(rentalsOffset + first * RENTAL_SIZE, Math.min(perSegment, rentals - first) * RENTAL_SIZE);
+            }
+            customerTable = map(customersOffset, (long) customers * CUSTOMER_SIZE);
+            names = map(namesOffset, moviesOffset - namesOffset);
+            catalog = readMovies(map(moviesOffset, size - moviesOffset), movies);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    private ByteBuffer map(long position, long length) throws IOException {
+        if (length > Integer.MAX_VALUE)
+            throw new IOException("Section of " + length + " bytes is too large to map");
+        return channel.map(FileChannel.MapMode.READ_ONLY, position, length).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    private static MovieCatalog readMovies(ByteBuffer in, int count) {
+        List<Movie> movies = new ArrayList<>(count);
+        for (int id = 0; id < count; id++) {
+            Movie.MovieType type = TYPES[in.get()];
+            byte[] title = new byte[in.getInt()];
+            in.get(title);
+            movies.add(new Movie(new String(title, StandardCharsets.UTF_8), type));
+        }
+        MovieCatalog catalog = new MovieCatalog(count);
+        // an empty catalog hands out ids in registration order, matching the stored ids
+        catalog.registerAll(movies);
+        return catalog;
+    }
+
+    public MovieCatalog catalog() {
+        return catalog;
+    }
+
+    public int getCustomers() {
+        return customers;
+    }
+
+    public long getRentals() {
+        return rentals;
+    }
+
+    public Customer customer(int index) {
+        Objects.checkIndex(index, customers);
+        int offset = index * CUSTOMER_SIZE;
+        return new Customer(name(customerTable.getInt(offset + 12)),
+                new MappedRentals(customerTable.getLong(offset), customerTable.getInt(offset + 8)), prices);
+    }
+
+    /**
+     * Finds a customer by name. The first call indexes every name, which reads the whole
+     * names section; later calls are hash lookups.
+     *
+     * @return the customer, or {@code null} if there is none with this name
+     */
+    public Customer customer(String name) {
+        Map<String, Integer> index = customerIndex;
+        if (index == null) {
+            index = new HashMap<>(customers * 2);
+            for (int i = 0; i < customers; i++)
+                index.putIfAbsent(name(customerTable.getInt(i * CUSTOMER_SIZE + 12)), i);
+            customerIndex = index;
+        }
+        Integer position = index.get(name);
+        return position == null ? null : customer(position);
+    }
+
+    private String name(int offset) {
+        int length = names.getInt(offset);
+        byte[] bytes = new byte[length];
+        names.get(offset + 4, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private int record(long index, int field) {
+        return rentalSegments[(int) (index >>> segmentShift)].getInt((int) (index & segmentMask) * RENTAL_SIZE + field);
+    }
+
+    /**
+     * One customer's rentals, read from the mapped file on every access.
+     */
+    private final class MappedRentals implements RentalSource {
+        private final long first;
+        private final int size;
+
+        MappedRentals(long first, int size) {
+            this.first = first;
+            this.size = size;
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public String title(int index) {
+            return catalog.movie(record(first + Objects.checkIndex(index, size), 4) >>> TYPE_BITS).getTitle();
+        }
+
+        @Override
+        public Movie.MovieType type(int index) {
+            return TYPES[record(first + Objects.checkIndex(index, size), 4) & TYPE_MASK];
+        }
+
+        @Override
+        public int daysRented(int index) {
+            return record(first + Objects.checkIndex(index, size), 0);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,175 @@
+package example;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.TRUNCATE_EXISTING;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+/**
+ * Writes the billing state snapshot loaded by {@link BillingSnapshot}. All numbers are
+ * little-endian; the sections follow a {@link #HEADER_SIZE}-byte header:
+ * <pre>
+ * header:    int MAGIC | int VERSION | long rentals | int customers | int movies |
+ *            long rentalsOffset | long customersOffset | long namesOffset | long moviesOffset | padding
+ * rentals:   per rental   int daysRented | int titleId &lt;&lt; 2 | type ordinal
+ * customers: per customer long firstRental | int rentalCount | int nameOffset
+ * names:     per customer int byteLength | UTF-8 bytes
+ * movies:    per movie id byte type ordinal | int byteLength | UTF-8 title bytes
+ * </pre>
+ * Rentals are streamed to disk as customers are written; the customer table and names are
+ * kept in memory until {@link #close()}, which writes them, the catalog and the header.
+ */
+class BillingSnapshotWriter implements Closeable {
+    static final int MAGIC = 0x424E5350; // "BSNP"
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 64;
+    static final int RENTAL_SIZE = 8;
+    static final int CUSTOMER_SIZE = 16;
+    static final int TYPE_BITS = 2;
+
+    private final FileChannel channel;
+    private final MovieCatalog catalog;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(RENTAL_SIZE * 8192).order(ByteOrder.LITTLE_ENDIAN);
+    private final ByteArrayOutputStream names = new ByteArrayOutputStream();
+    private long[] firstRentals = new long[64];
+    private int[] rentalCounts = new int[64];
+    private int[] nameOffsets = new int[64];
+    private int customers;
+    private long rentals;
+
+    /**
+     * @param catalog resolves titles to the ids stored with each rental; titles not yet in
+     *                it are registered, and the whole catalog is written on close
+     */
+    public BillingSnapshotWriter(Path file, MovieCatalog catalog) throws IOException {
+        this.catalog = catalog;
+        channel = FileChannel.open(file, CREATE, TRUNCATE_EXISTING, WRITE);
+        channel.position(HEADER_SIZE);
+    }
+
+    /**
+     * Appends the customer and their rentals. The rentals are checked before anything is
+     * written, so a rejected customer leaves the snapshot and the catalog unchanged.
+     *
+     * @throws IllegalArgumentException if a title is already registered, or rented in this
+     *                                  customer, with another movie type
+     */
+    public void write(Customer customer) throws IOException {
+        RentalSource source = customer.rentals();
+        checkTitles(source);
+        if (customers == firstRentals.length) {
+            firstRentals = Arrays.copyOf(firstRentals, customers * 2);
+            rentalCounts = Arrays.copyOf(rentalCounts, customers * 2);
+            nameOffsets = Arrays.copyOf(nameOffsets, customers * 2);
+        }
+        if (names.size() > Integer.MAX_VALUE - 4 - customer.getName().length() * 3)
+            throw new IOException("Customer names exceed 2 GB");
+        firstRentals[customers] = rentals;
+        rentalCounts[customers] = source.size();
+        nameOffsets[customers] = names.size();
+        byte[] name = customer.getName().getBytes(StandardCharsets.UTF_8);
+        names.write(ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN).putInt(name.length).array());
+        names.write(name);
+        customers++;
+
+        for (int i = 0, n = source.size(); i < n; i++) {
+            Movie.MovieType type = source.type(i);
+            int titleId = catalog.register(source.title(i), type);
+            if (buffer.remaining() < RENTAL_SIZE)
+                flush();
+            buffer.putInt(source.daysRented(i)).putInt(titleId << TYPE_BITS | type.ordinal());
+            rentals++;
+        }
+    }
+
+    private void checkTitles(RentalSource source) throws IOException {
+        Map<String, Movie.MovieType> added = null;
+        for (int i = 0, n = source.size(); i < n; i++) {
+            String title = source.title(i);
+            Movie.MovieType type = source.type(i);
+            Movie movie = catalog.movie(title);
+            Movie.MovieType registered = movie != null ? movie.getPriceCode() : added == null ? null : added.get(title);
+            if (registered == null) {
+                if (added == null)
+                    added = new HashMap<>();
+                added.put(title, type);
+            } else if (registered != type) {
+                throw new IllegalArgumentException(title + " is already registered as " + registered);
+            }
+        }
+        if (added != null && (long) catalog.size() + added.size() - 1 > Integer.MAX_VALUE >>> TYPE_BITS)
+            throw new IOException("Too many movies for a snapshot: " + ((long) catalog.size() + added.size()));
+    }
+
+    public long getRentals() {
+        return rentals;
+    }
+
+    public int getCustomers() {
+        return customers;
+    }
+
+    private void flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining())
+            channel.write(buffer);
+        buffer.clear();
+    }
+
+    private void put(byte[] bytes) throws IOException {
+        for (int offset = 0; offset < bytes.length; ) {
+            if (!buffer.hasRemaining())
+                flush();
+            int length = Math.min(buffer.remaining(), bytes.length - offset);
+            buffer.put(bytes, offset, length);
+            offset += length;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            long rentalsOffset = HEADER_SIZE;
+            long customersOffset = rentalsOffset + rentals * RENTAL_SIZE;
+            for (int i = 0; i < customers; i++) {
+                if (buffer.remaining() < CUSTOMER_SIZE)
+                    flush();
+                buffer.putLong(firstRentals[i]).putInt(rentalCounts[i]).putInt(nameOffsets[i]);
+            }
+            long namesOffset = customersOffset + (long) customers * CUSTOMER_SIZE;
+            put(names.toByteArray());
+            long moviesOffset = namesOffset + names.size();
+            int movies = catalog.size();
+            for (int id = 0; id < movies; id++) {
+                Movie movie = catalog.movie(id);
+                byte[] title = movie.getTitle().getBytes(StandardCharsets.UTF_8);
+                if (buffer.remaining() < 5)
+                    flush();
+                buffer.put((byte) movie.getPriceCode().ordinal()).putInt(title.length);
+                put(title);
+            }
+            flush();
+
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN)
+                    .putInt(MAGIC).putInt(VERSION)
+                    .putLong(rentals).putInt(customers).putInt(movies)
+                    .putLong(rentalsOffset).putLong(customersOffset).putLong(namesOffset).putLong(moviesOffset);
+            header.clear();
+            while (header.hasRemaining())
+                channel.write(header, header.position());
+        } finally {
+            channel.close();
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package example;
+
+import java.util.stream.Collector;
+
+/**
+ * Rental count, amount owed and frequent renter points of one or more statements.
+ */
+final class BillingTotals {
+    static final BillingTotals ZERO = new BillingTotals(0, 0, 0);
+
+    private final long rentals;
+    private final long amountCents;
+    private final long frequentRenterPoints;
+
+    public BillingTotals(long rentals, long amountCents, long frequentRenterPoints) {
+        this.rentals = rentals;
+        this.amountCents = amountCents;
+        this.frequentRenterPoints = frequentRenterPoints;
+    }
+
+    public long getRentals() {
+        return rentals;
+    }
+
+    public long getAmountCents() {
+        return amountCents;
+    }
+
+    public long getFrequentRenterPoints() {
+        return frequentRenterPoints;
+    }
+
+    public BillingTotals plus(BillingTotals other) {
+        return new BillingTotals(rentals + other.rentals, amountCents + other.amountCents,
+                frequentRenterPoints + other.frequentRenterPoints);
+    }
+
+    /**
+     * Sums totals with a mutable accumulator per split, so parallel streams combine
+     * partial sums instead of allocating an intermediate {@code BillingTotals} per element.
+     */
+    public static Collector<BillingTotals, ?, BillingTotals> summing() {
+        return Collector.of(() -> new long[3],
+                (sums, totals) -> {
+                    sums[0] += totals.rentals;
+                    sums[1] += totals.amountCents;
+                    sums[2] += totals.frequentRenterPoints;
+                },
+                (left, right) -> {
+                    left[0] += right[0];
+                    left[1] += right[1];
+                    left[2] += right[2];
+                    return left;
+                },
+                sums -> new BillingTotals(sums[0], sums[1], sums[2]),
+                Collector.Characteristics.UNORDERED);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o)
+            return true;
+        if (!(o instanceof BillingTotals other))
+            return false;
+        return rentals == other.rentals && amountCents == other.amountCents
+                && frequentRenterPoints == other.frequentRenterPoints;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(rentals) * 31 * 31 + Long.hashCode(amountCents) * 31 + Long.hashCode(frequentRenterPoints);
+    }
+
+    @Override
+    public String toString() {
+        return rentals + " rentals, " + Money.toString(amountCents) + " owed, " + frequentRenterPoints + " points";
+    }
+}
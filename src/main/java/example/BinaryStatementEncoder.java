@@ -0,0 +1,93 @@
+package example;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Encodes a statement compactly. Strings are a varint byte length followed by UTF-8;
+ * numbers are varints, signed ones zigzag-encoded:
+ * <pre>
+ * name, rental count,
+ * per rental: title, type ordinal (1 byte), days rented, amount in cents, points,
+ * total amount in cents, total points
+ * </pre>
+ */
+final class BinaryStatementEncoder implements StatementEncoder {
+    private static final Movie.MovieType[] TYPES = Movie.MovieType.values();
+
+    @Override
+    public void encode(Customer customer, StatementOutput out) throws IOException {
+        RentalSource rentals = customer.rentals();
+        PriceTable prices = customer.prices();
+        long totalAmount = 0;
+        long frequentRenterPoints = 0;
+        out.putString(customer.getName());
+        out.putVarLong(rentals.size());
+        for (int i = 0, n = rentals.size(); i < n; i++) {
+            Movie.MovieType type = rentals.type(i);
+            int daysRented = rentals.daysRented(i);
+            long amount = prices.chargeCents(type, daysRented);
+            int points = prices.frequentRenterPoints(type, daysRented);
+            totalAmount += amount;
+            frequentRenterPoints += points;
+            out.putString(rentals.title(i));
+            out.putByte(type.ordinal());
+            out.putVarLong(zigzag(daysRented));
+            out.putVarLong(zigzag(amount));
+            out.putVarLong(zigzag(points));
+        }
+        out.putVarLong(zigzag(totalAmount));
+        out.putVarLong(zigzag(frequentRenterPoints));
+    }
+
+    private static long zigzag(long value) {
+        return value << 1 ^ value >> 63;
+    }
+
+    private static long unzigzag(long value) {
+        return value >>> 1 ^ -(value & 1);
+    }
+
+    /**
+     * Decodes one statement from {@code in} back into the text of {@link Customer#statement()},
+     * for inspection and tests.
+     */
+    static String toText(ByteBuffer in) throws IOException {
+        StringBuilder text = new StringBuilder();
+        Customer.appendHeader(text, getString(in));
+        long rentals = getVarLong(in);
+        for (long i = 0; i < rentals; i++) {
+            String title = getString(in);
+            if (in.get() >= TYPES.length)
+                throw new IOException("Bad movie type at " + (in.position() - 1));
+            getVarLong(in);
+            long amount = unzigzag(getVarLong(in));
+            getVarLong(in);
+            Customer.appendLine(text, title, amount);
+        }
+        long totalAmount = unzigzag(getVarLong(in));
+        Customer.appendFooter(text, totalAmount, unzigzag(getVarLong(in)));
+        return text.toString();
+    }
+
+    private static String getString(ByteBuffer in) throws IOException {
+        long length = getVarLong(in);
+        if (length > in.remaining())
+            throw new IOException("Truncated string at " + in.position());
+        byte[] bytes = new byte[(int) length];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static long getVarLong(ByteBuffer in) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = in.get();
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0)
+                return value;
+        }
+        throw new IOException("Malformed varint at " + in.position());
+    }
+}
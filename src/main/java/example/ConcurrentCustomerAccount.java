@@ -0,0 +1,132 @@
+package example;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * A customer whose rentals are added from many threads while others read statements.
+ * <p>
+ * Rentals are pushed onto an immutable chain with a compare-and-set, so adding never
+ * blocks. Every link carries the rental count, amount and points of the chain up to and
+ * including it; reading the head therefore yields totals that are consistent with one
+ * another and with {@link #snapshot()} taken from the same head. Statements list the
+ * rentals in the order their additions took effect.
+ * <p>
+ * Snapshots are materialized into an array that is cached and extended incrementally, so
+ * repeated statements only walk the rentals added since the previous one.
+ */
+class ConcurrentCustomerAccount {
+    private final String name;
+    private final PriceTable prices;
+    private final AtomicReference<Link> head = new AtomicReference<>();
+    private volatile Materialized materialized = Materialized.EMPTY;
+
+    public ConcurrentCustomerAccount(String name) {
+        this(name, PriceTable.STANDARD);
+    }
+
+    public ConcurrentCustomerAccount(String name, PriceTable prices) {
+        this.name = name;
+        this.prices = prices;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void addRental(Rental rental) {
+        Movie.MovieType type = rental.getMovie().getPriceCode();
+        long amount = prices.chargeCents(type, rental.getDaysRented());
+        int points = prices.frequentRenterPoints(type, rental.getDaysRented());
+        Link previous;
+        Link next;
+        do {
+            previous = head.get();
+            next = previous == null
+                    ? new Link(rental, null, 1, amount, points)
+                    : new Link(rental, previous, previous.count + 1, previous.amountCents + amount,
+                    previous.frequentRenterPoints + points);
+        } while (!head.compareAndSet(previous, next));
+    }
+
+    public int getRentalCount() {
+        Link current = head.get();
+        return current == null ? 0 : current.count;
+    }
+
+    public long getTotalAmountCents() {
+        Link current = head.get();
+        return current == null ? 0 : current.amountCents;
+    }
+
+    public long getFrequentRenterPoints() {
+        Link current = head.get();
+        return current == null ? 0 : current.frequentRenterPoints;
+    }
+
+    /**
+     * Count, amount and points of one instant, read in O(1).
+     */
+    public BillingTotals totals() {
+        Link current = head.get();
+        return current == null ? BillingTotals.ZERO
+                : new BillingTotals(current.count, current.amountCents, current.frequentRenterPoints);
+    }
+
+    /**
+     * An immutable customer holding the rentals added so far; later additions do not
+     * affect it.
+     */
+    public Customer snapshot() {
+        return new Customer(name, RentalSource.of(materialize(head.get())), prices);
+    }
+
+    public String statement() {
+        return snapshot().statement();
+    }
+
+    private List<Rental> materialize(Link current) {
+        if (current == null)
+            return List.of();
+        Materialized cached = materialized;
+        int known = cached.head == null ? 0 : cached.head.count;
+        // all heads form one chain, so a cached head at least as long holds ours as a prefix
+        if (known >= current.count)
+            return Arrays.asList(cached.rentals).subList(0, current.count);
+        Rental[] rentals = Arrays.copyOf(cached.rentals, current.count);
+        for (Link link = current; link != cached.head; link = link.previous)
+            rentals[link.count - 1] = link.rental;
+        if (materialized.rentals.length < rentals.length)
+            materialized = new Materialized(current, rentals);
+        return Arrays.asList(rentals);
+    }
+
+    private static final class Link {
+        final Rental rental;
+        final Link previous;
+        final int count;
+        final long amountCents;
+        final long frequentRenterPoints;
+
+        Link(Rental rental, Link previous, int count, long amountCents, long frequentRenterPoints) {
+            this.rental = rental;
+            this.previous = previous;
+            this.count = count;
+            this.amountCents = amountCents;
+            this.frequentRenterPoints = frequentRenterPoints;
+        }
+    }
+
+    private static final class Materialized {
+        static final Materialized EMPTY = new Materialized(null, new Rental[0]);
+
+        final Link head;
+        final Rental[] rentals;
+
+        Materialized(Link head, Rental[] rentals) {
+            this.head = head;
+            this.rentals = rentals;
+        }
+    }
+}
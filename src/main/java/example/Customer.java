@@ -1,17 +1,34 @@
 package example;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.List;
 
-import static example.Movie.MovieType.NEW_RELEASE;
-
-@SuppressWarnings("StringConcatenationInLoop")
 class Customer {
+    private static final String HEADER = "Rental Record for ";
+    private static final String AMOUNT_OWED = "Amount owed is ";
+    private static final String EARNED = "You earned ";
+    private static final String POINTS = " frequent renter points";
+
     private final String name;
-    private final List<Rental> rentals;
+    private final RentalSource rentals;
+    private final PriceTable prices;
 
     public Customer(String name, List<Rental> rentals) {
+        this(name, RentalSource.of(rentals));
+    }
+
+    /**
+     * Bills rentals that live outside {@code Rental} objects, e.g. in a {@link RentalLedger}.
+     */
+    public Customer(String name, RentalSource rentals) {
+        this(name, rentals, PriceTable.STANDARD);
+    }
+
+    public Customer(String name, RentalSource rentals, PriceTable prices) {
         this.name = name;
         this.rentals = rentals;
+        this.prices = prices;
     }
 
 
@@ -19,40 +36,169 @@ class Customer {
         return name;
     }
 
+    RentalSource rentals() {
+        return rentals;
+    }
+
+    PriceTable prices() {
+        return prices;
+    }
+
+    /**
+     * The statement's figures without rendering any text.
+     */
+    public BillingTotals totals() {
+        long totalAmount = 0;
+        long frequentRenterPoints = 0;
+        for (int i = 0, n = rentals.size(); i < n; i++) {
+            Movie.MovieType type = rentals.type(i);
+            int daysRented = rentals.daysRented(i);
+            totalAmount += prices.chargeCents(type, daysRented);
+            frequentRenterPoints += prices.frequentRenterPoints(type, daysRented);
+        }
+        return new BillingTotals(rentals.size(), totalAmount, frequentRenterPoints);
+    }
+
+    /**
+     * A statement whose totals, lines and text are each computed only when first asked for.
+     */
+    public LazyStatement lazyStatement() {
+        return new LazyStatement(this);
+    }
+
+    /**
+     * 64-bit hash of the rentals (every character of each title, movie type and days, in
+     * order). Equal rentals give equal fingerprints. Titles are hashed character by character
+     * rather than through the 32-bit {@code String.hashCode()}, whose collisions ("Aa" and
+     * "BB") are easy to hit; it is still not a cryptographic hash.
+     */
+    public long fingerprint() {
+        long hash = 0x9E3779B97F4A7C15L ^ rentals.size();
+        for (int i = 0, n = rentals.size(); i < n; i++) {
+            String title = rentals.title(i);
+            hash = (hash ^ title.length()) * 0xFF51AFD7ED558CCDL;
+            for (int c = 0, length = title.length(); c < length; c++)
+                hash = (hash ^ title.charAt(c)) * 0x100000001B3L;
+            hash = (hash ^ ((long) rentals.type(i).ordinal() << 32 | (rentals.daysRented(i) & 0xFFFFFFFFL))) * 0xC4CEB9FE1A85EC53L;
+        }
+        return hash ^ (hash >>> 33);
+    }
+
     public String statement() {
-        double totalAmount = 0;
+        StringBuilder result = new StringBuilder(estimatedStatementLength());
+        statement(result);
+        return result.toString();
+    }
+
+    /**
+     * Appends the statement to a caller-supplied (and possibly presized or reused) buffer.
+     * Produces exactly the same characters as {@link #statement()}.
+     */
+    public void statement(StringBuilder out) {
+        try {
+            statement((Appendable) out);
+        } catch (IOException e) {
+            // StringBuilder never throws
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Streams the statement straight into {@code out}: header, one line per rental, footer.
+     * Nothing is accumulated in between, so the cost is linear in the number of rentals.
+     */
+    public void statement(Appendable out) throws IOException {
+        BillingMetrics metrics = BillingMetrics.current();
+        if (metrics == null) {
+            render(out, null);
+            return;
+        }
+        StatementEvent event = StatementEvent.enabled() ? new StatementEvent() : null;
+        if (event != null)
+            event.begin();
+        BillingMetrics.ThreadCounters counters = metrics.begin();
+        long start = counters.timed ? System.nanoTime() : 0;
+        int startLength = out instanceof CharSequence chars ? chars.length() : 0;
+        render(out, counters.statement);
+        long characters = out instanceof CharSequence chars ? chars.length() - startLength : 0;
+        if (event == null) {
+            metrics.end(counters, start, characters);
+            return;
+        }
+        BillingTotals totals = BillingMetrics.totals(counters.statement);
+        metrics.end(counters, start, characters);
+        event.end();
+        if (event.shouldCommit()) {
+            event.customer = name;
+            event.rentals = totals.getRentals();
+            event.amountCents = totals.getAmountCents();
+            event.frequentRenterPoints = totals.getFrequentRenterPoints();
+            event.characters = characters;
+            event.commit();
+        }
+    }
+
+    private void render(Appendable out, long[] figures) throws IOException {
+        long totalAmount = 0;
         int frequentRenterPoints = 0;
-        String result = "Rental Record for " + getName() + "\n";
-        for (Rental each : rentals) {
-            double thisAmount = 0;
+        appendHeader(out, getName());
+        for (int i = 0, n = rentals.size(); i < n; i++) {
+            Movie.MovieType type = rentals.type(i);
+            int daysRented = rentals.daysRented(i);
             //determine amounts for each line
-            switch (each.getMovie().getPriceCode()) {
-                case REGULAR -> {
-                    thisAmount += 2;
-                    if (each.getDaysRented() > 2)
-                        thisAmount += (each.getDaysRented() - 2) * 1.5;
-                }
-                case NEW_RELEASE -> thisAmount += each.getDaysRented() * 3;
-                case CHILDRENS -> {
-                    thisAmount += 1.5;
-                    if (each.getDaysRented() > 3)
-                        thisAmount += (each.getDaysRented() - 3) * 1.5;
-                }
-            }
-            // add frequent renter points
-            frequentRenterPoints ++;
-            // add bonus for a two day new release rental
-            if ((each.getMovie().getPriceCode() == NEW_RELEASE) && each.getDaysRented() > 1)
-                frequentRenterPoints ++;
+            long thisAmount = prices.chargeCents(type, daysRented);
+            int thisPoints = prices.frequentRenterPoints(type, daysRented);
+            frequentRenterPoints += thisPoints;
+            if (figures != null)
+                BillingMetrics.count(figures, type, thisAmount, thisPoints);
             //show figures for this rental
-            result += "\t" + each.getMovie().getTitle()+ "\t" + thisAmount + "\n";
+            appendLine(out, rentals.title(i), thisAmount);
             totalAmount += thisAmount;
         }
-        //add footer lines
-        result += "Amount owed is " + totalAmount + "\n";
-        result += "You earned " + frequentRenterPoints + " frequent renter points";
-        return result;
+        appendFooter(out, totalAmount, frequentRenterPoints);
+    }
+
+    static void appendHeader(Appendable out, String name) throws IOException {
+        out.append(HEADER).append(name).append('\n');
     }
 
+    static void appendLine(Appendable out, String title, long amountCents) throws IOException {
+        out.append('\t').append(title).append('\t');
+        Money.append(out, amountCents);
+        out.append('\n');
+    }
+
+    static void appendFooter(Appendable out, long totalAmountCents, long frequentRenterPoints) throws IOException {
+        out.append(AMOUNT_OWED);
+        Money.append(out, totalAmountCents);
+        out.append('\n');
+        out.append(EARNED);
+        if (out instanceof StringBuilder sb)
+            sb.append(frequentRenterPoints);
+        else
+            out.append(Long.toString(frequentRenterPoints));
+        out.append(POINTS);
+    }
+
+    /**
+     * Upper-bound guess of the statement length, used to presize the buffer so
+     * {@link #statement()} does not have to grow it while rendering.
+     */
+    int estimatedStatementLength() {
+        int length = estimatedHeaderAndFooterLength(name);
+        for (int i = 0, n = rentals.size(); i < n; i++)
+            length += estimatedLineLength(rentals.title(i));
+        return length;
+    }
+
+    static int estimatedHeaderAndFooterLength(String name) {
+        return HEADER.length() + name.length() + 1
+                + AMOUNT_OWED.length() + 16 + 1
+                + EARNED.length() + 11 + POINTS.length();
+    }
+
+    static int estimatedLineLength(String title) {
+        return title.length() + 12;
+    }
 
 }
@@ -0,0 +1,122 @@
+package example;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A customer whose rentals change over time. The amount owed and the frequent renter
+ * points are kept up to date on every add and return, so reading the live balance is
+ * O(1), and each statement line is rendered once and reused until its rental is returned.
+ * <p>
+ * Not thread-safe.
+ */
+class CustomerAccount {
+    private final String name;
+    private final PriceTable prices;
+    private final List<Line> lines = new ArrayList<>();
+
+    private long totalAmountCents;
+    private int frequentRenterPoints;
+    private int linesLength;
+    private String statement;
+
+    public CustomerAccount(String name) {
+        this(name, PriceTable.STANDARD);
+    }
+
+    public CustomerAccount(String name, PriceTable prices) {
+        this.name = name;
+        this.prices = prices;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void addRental(Rental rental) {
+        Line line = new Line(rental,
+                prices.chargeCents(rental.getMovie().getPriceCode(), rental.getDaysRented()),
+                prices.frequentRenterPoints(rental.getMovie().getPriceCode(), rental.getDaysRented()));
+        lines.add(line);
+        totalAmountCents += line.amountCents;
+        frequentRenterPoints += line.points;
+        statement = null;
+    }
+
+    /**
+     * Removes the rental from the account.
+     *
+     * @return {@code false} if the rental is not on this account
+     */
+    public boolean returnRental(Rental rental) {
+        for (int i = 0; i < lines.size(); i++) {
+            Line line = lines.get(i);
+            if (line.rental == rental) {
+                lines.remove(i);
+                totalAmountCents -= line.amountCents;
+                frequentRenterPoints -= line.points;
+                if (line.fragment != null)
+                    linesLength -= line.fragment.length();
+                statement = null;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public int getRentalCount() {
+        return lines.size();
+    }
+
+    public long getTotalAmountCents() {
+        return totalAmountCents;
+    }
+
+    public int getFrequentRenterPoints() {
+        return frequentRenterPoints;
+    }
+
+    /**
+     * Same text as {@link Customer#statement()} for the current rentals. Only lines added
+     * since the previous call are rendered; the result is reused while nothing changes.
+     */
+    public String statement() {
+        if (statement != null)
+            return statement;
+        try {
+            for (Line line : lines) {
+                if (line.fragment == null) {
+                    StringBuilder fragment = new StringBuilder(Customer.estimatedLineLength(line.rental.getMovie().getTitle()));
+                    Customer.appendLine(fragment, line.rental.getMovie().getTitle(), line.amountCents);
+                    line.fragment = fragment.toString();
+                    linesLength += line.fragment.length();
+                }
+            }
+            StringBuilder result = new StringBuilder(Customer.estimatedHeaderAndFooterLength(name) + linesLength);
+            Customer.appendHeader(result, name);
+            for (Line line : lines)
+                result.append(line.fragment);
+            Customer.appendFooter(result, totalAmountCents, frequentRenterPoints);
+            statement = result.toString();
+            return statement;
+        } catch (IOException e) {
+            // StringBuilder never throws
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static final class Line {
+        final Rental rental;
+        final long amountCents;
+        final int points;
+        String fragment;
+
+        Line(Rental rental, long amountCents, int points) {
+            this.rental = rental;
+            this.amountCents = amountCents;
+            this.points = points;
+        }
+    }
+}
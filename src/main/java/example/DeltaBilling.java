@@ -0,0 +1,196 @@
+package example;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.stream.Stream;
+
+/**
+ * Repeat billing runs that only bill what changed since the previous run.
+ * <p>
+ * Each run remembers every customer's rentals (title references, types and days), price
+ * table and totals. In the next run a customer with the same rentals and price table is
+ * skipped without rendering anything. Any other customer gets a delta statement: the
+ * header, the rentals removed ({@code -}) and added ({@code +}) between the longest common
+ * prefix and suffix of the two rental lists, the new footer and the previous totals.
+ * Customers seen for the first time get every rental as an addition. Customers missing
+ * from a run are forgotten.
+ * <p>
+ * Runs are sequential and an instance must not be shared between concurrent runs.
+ */
+class DeltaBilling {
+    private static final String PREVIOUSLY = "\nPreviously owed ";
+    private static final String FOR = " for ";
+    private static final String POINTS = " frequent renter points";
+
+    private Map<String, Billed> previous = new HashMap<>();
+    private double nanosPerRental;
+
+    public DeltaReport run(Stream<Customer> customers, BiConsumer<Customer, String> sink) {
+        return run(customers.iterator(), sink);
+    }
+
+    /**
+     * Passes the delta statement of every new or changed customer to {@code sink}, in order.
+     *
+     * @throws IllegalArgumentException if a customer name occurs twice; the state of the
+     *                                  previous run is then kept for the next one
+     */
+    public DeltaReport run(Iterator<Customer> customers, BiConsumer<Customer, String> sink) {
+        long start = System.nanoTime();
+        Map<String, Billed> billed = new HashMap<>(Math.max(16, previous.size() * 4 / 3 + 1));
+        StringBuilder out = new StringBuilder();
+        long count = 0;
+        long unchanged = 0;
+        long added = 0;
+        long matched = 0;
+        long skippedRentals = 0;
+        long renderedRentals = 0;
+        long renderedNanos = 0;
+        long lines = 0;
+        long characters = 0;
+        while (customers.hasNext()) {
+            Customer customer = customers.next();
+            if (billed.containsKey(customer.getName()))
+                throw new IllegalArgumentException("Customer " + customer.getName() + " occurs twice in one run");
+            count++;
+            Billed before = previous.get(customer.getName());
+            if (before != null) {
+                matched++;
+                if (before.sameAs(customer)) {
+                    billed.put(customer.getName(), before);
+                    unchanged++;
+                    skippedRentals += before.size();
+                    continue;
+                }
+            } else {
+                added++;
+            }
+            long renderStart = System.nanoTime();
+            Billed after = new Billed(customer);
+            out.setLength(0);
+            lines += delta(out, customer.getName(), before, after);
+            renderedNanos += System.nanoTime() - renderStart;
+            renderedRentals += after.size();
+            billed.put(customer.getName(), after);
+            sink.accept(customer, out.toString());
+            characters += out.length();
+        }
+        if (renderedRentals > 0) {
+            double measured = (double) renderedNanos / renderedRentals;
+            // the lowest rate seen, so a cold first run does not inflate later estimates
+            nanosPerRental = nanosPerRental == 0 ? measured : Math.min(nanosPerRental, measured);
+        }
+        long removed = previous.size() - matched;
+        previous = billed;
+        return new DeltaReport(count, unchanged, added, removed, lines, characters, System.nanoTime() - start,
+                (long) (skippedRentals * nanosPerRental));
+    }
+
+    /**
+     * Number of customers the next run compares against.
+     */
+    public int size() {
+        return previous.size();
+    }
+
+    /**
+     * @return the number of changed rentals written
+     */
+    private static int delta(StringBuilder out, String name, Billed before, Billed after) {
+        try {
+            Customer.appendHeader(out, name);
+            int prefix = 0;
+            int suffix = 0;
+            int oldSize = before == null ? 0 : before.size();
+            int newSize = after.size();
+            if (before != null) {
+                int common = Math.min(oldSize, newSize);
+                while (prefix < common && before.sameLine(prefix, after, prefix))
+                    prefix++;
+                while (suffix < common - prefix && before.sameLine(oldSize - 1 - suffix, after, newSize - 1 - suffix))
+                    suffix++;
+                for (int i = prefix; i < oldSize - suffix; i++)
+                    before.appendLine(out, '-', i);
+            }
+            for (int i = prefix; i < newSize - suffix; i++)
+                after.appendLine(out, '+', i);
+            Customer.appendFooter(out, after.totals.getAmountCents(), after.totals.getFrequentRenterPoints());
+            if (before != null) {
+                out.append(PREVIOUSLY);
+                Money.append(out, before.totals.getAmountCents());
+                out.append(FOR).append(before.totals.getFrequentRenterPoints()).append(POINTS);
+            }
+            return oldSize + newSize - 2 * (prefix + suffix);
+        } catch (IOException e) {
+            // StringBuilder never throws
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * What one customer was billed for: enough to tell whether their next statement would
+     * differ, and which lines.
+     */
+    private static final class Billed {
+        private final String[] titles;
+        private final byte[] types;
+        private final int[] days;
+        private final PriceTable prices;
+        private final BillingTotals totals;
+
+        Billed(Customer customer) {
+            RentalSource rentals = customer.rentals();
+            int n = rentals.size();
+            titles = new String[n];
+            types = new byte[n];
+            days = new int[n];
+            prices = customer.prices();
+            long amount = 0;
+            long points = 0;
+            for (int i = 0; i < n; i++) {
+                Movie.MovieType type = rentals.type(i);
+                int daysRented = rentals.daysRented(i);
+                titles[i] = rentals.title(i);
+                types[i] = (byte) type.ordinal();
+                days[i] = daysRented;
+                amount += prices.chargeCents(type, daysRented);
+                points += prices.frequentRenterPoints(type, daysRented);
+            }
+            totals = new BillingTotals(n, amount, points);
+        }
+
+        int size() {
+            return titles.length;
+        }
+
+        boolean sameAs(Customer customer) {
+            RentalSource rentals = customer.rentals();
+            if (customer.prices() != prices || rentals.size() != titles.length)
+                return false;
+            for (int i = 0; i < titles.length; i++) {
+                if (days[i] != rentals.daysRented(i) || types[i] != rentals.type(i).ordinal()
+                        || !titles[i].equals(rentals.title(i)))
+                    return false;
+            }
+            return true;
+        }
+
+        boolean sameLine(int i, Billed other, int j) {
+            return days[i] == other.days[j] && types[i] == other.types[j] && titles[i].equals(other.titles[j])
+                    && (prices == other.prices || chargeCents(i) == other.chargeCents(j));
+        }
+
+        long chargeCents(int i) {
+            return prices.chargeCents(types[i], days[i]);
+        }
+
+        void appendLine(StringBuilder out, char change, int i) throws IOException {
+            out.append(change);
+            Customer.appendLine(out, titles[i], chargeCents(i));
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package example;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * What one {@link DeltaBilling} run billed and skipped.
+ */
+final class DeltaReport {
+    private final long customers;
+    private final long unchanged;
+    private final long added;
+    private final long removed;
+    private final long lines;
+    private final long characters;
+    private final long elapsedNanos;
+    private final long savedNanos;
+
+    DeltaReport(long customers, long unchanged, long added, long removed, long lines, long characters,
+                long elapsedNanos, long savedNanos) {
+        this.customers = customers;
+        this.unchanged = unchanged;
+        this.added = added;
+        this.removed = removed;
+        this.lines = lines;
+        this.characters = characters;
+        this.elapsedNanos = elapsedNanos;
+        this.savedNanos = savedNanos;
+    }
+
+    public long getCustomers() {
+        return customers;
+    }
+
+    /**
+     * Customers skipped because their rentals and prices did not change.
+     */
+    public long getUnchanged() {
+        return unchanged;
+    }
+
+    /**
+     * Customers billed with changes since the previous run.
+     */
+    public long getChanged() {
+        return customers - unchanged - added;
+    }
+
+    /**
+     * Customers not seen in the previous run.
+     */
+    public long getAdded() {
+        return added;
+    }
+
+    /**
+     * Customers of the previous run missing from this one.
+     */
+    public long getRemoved() {
+        return removed;
+    }
+
+    /**
+     * Rental lines written, added and removed ones together.
+     */
+    public long getLines() {
+        return lines;
+    }
+
+    public long getCharacters() {
+        return characters;
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    /**
+     * Estimated time not spent on skipped customers: their rentals times the lowest average
+     * time per rental of the new and changed customers rendered by this or any earlier run.
+     * Taking the lowest keeps the slow, unwarmed first run from inflating the estimate.
+     */
+    public long getSavedNanos() {
+        return savedNanos;
+    }
+
+    public double skipRatio() {
+        return customers == 0 ? 0 : (double) unchanged / customers;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d customers: %d unchanged (%.1f%% skipped), %d changed, %d new, %d removed; "
+                        + "%d lines (%d chars) in %d ms, about %d ms saved",
+                customers, unchanged, skipRatio() * 100, getChanged(), added, removed, lines, characters,
+                TimeUnit.NANOSECONDS.toMillis(elapsedNanos), TimeUnit.NANOSECONDS.toMillis(savedNanos));
+    }
+}
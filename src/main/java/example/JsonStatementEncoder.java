@@ -0,0 +1,79 @@
+package example;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Encodes a statement as one JSON object:
+ * <pre>
+ * {"customer":"John","rentals":[{"title":"Rembo","type":"REGULAR","daysRented":1,
+ *   "amountCents":200,"frequentRenterPoints":1}],"amountCents":200,"frequentRenterPoints":1}
+ * </pre>
+ */
+final class JsonStatementEncoder implements StatementEncoder {
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+    private static final byte[] FIRST_TITLE = ascii("{\"title\":");
+    private static final byte[] NEXT_TITLE = ascii(",{\"title\":");
+    private static final byte[] AMOUNT = ascii(",\"amountCents\":");
+    private static final byte[] POINTS = ascii(",\"frequentRenterPoints\":");
+    private static final byte[][] TYPE_AND_DAYS = new byte[Movie.MovieType.values().length][];
+
+    static {
+        for (Movie.MovieType type : Movie.MovieType.values())
+            TYPE_AND_DAYS[type.ordinal()] = ascii(",\"type\":\"" + type.name() + "\",\"daysRented\":");
+    }
+
+    private static byte[] ascii(String fragment) {
+        return fragment.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    @Override
+    public void encode(Customer customer, StatementOutput out) throws IOException {
+        RentalSource rentals = customer.rentals();
+        PriceTable prices = customer.prices();
+        long totalAmount = 0;
+        long frequentRenterPoints = 0;
+        out.append("{\"customer\":");
+        string(out, customer.getName());
+        out.append(",\"rentals\":[");
+        for (int i = 0, n = rentals.size(); i < n; i++) {
+            Movie.MovieType type = rentals.type(i);
+            int daysRented = rentals.daysRented(i);
+            long amount = prices.chargeCents(type, daysRented);
+            int points = prices.frequentRenterPoints(type, daysRented);
+            totalAmount += amount;
+            frequentRenterPoints += points;
+            out.put(i == 0 ? FIRST_TITLE : NEXT_TITLE);
+            string(out, rentals.title(i));
+            out.put(TYPE_AND_DAYS[type.ordinal()]).putDecimal(daysRented);
+            out.put(AMOUNT).putDecimal(amount);
+            out.put(POINTS).putDecimal(points);
+            out.append('}');
+        }
+        out.append(']').put(AMOUNT).putDecimal(totalAmount);
+        out.put(POINTS).putDecimal(frequentRenterPoints);
+        out.append('}');
+    }
+
+    private static void string(StatementOutput out, String text) throws IOException {
+        out.append('"');
+        int run = 0;
+        for (int i = 0, n = text.length(); i < n; i++) {
+            char c = text.charAt(i);
+            if (c >= 0x20 && c != '"' && c != '\\')
+                continue;
+            out.append(text, run, i);
+            run = i + 1;
+            if (c == '"' || c == '\\')
+                out.append('\\').append(c);
+            else if (c == '\n')
+                out.append("\\n");
+            else if (c == '\t')
+                out.append("\\t");
+            else
+                out.append("\\u00").append(HEX[c >> 4]).append(HEX[c & 0xF]);
+        }
+        out.append(text, run, text.length());
+        out.append('"');
+    }
+}
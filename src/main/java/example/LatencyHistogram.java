@@ -0,0 +1,90 @@
+package example;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+
+/**
+ * Log-linear histogram of non-negative values (typically nanoseconds), in the spirit of
+ * HdrHistogram: values below 32 are counted exactly, larger values in 16 linear
+ * sub-buckets per power of two, i.e. within about 6%. Recording is a single atomic
+ * increment and never locks; reading takes a point-in-time copy.
+ */
+final class LatencyHistogram {
+    private static final int SUB_BUCKETS = 16;
+    private static final int EXACT_LIMIT = 2 * SUB_BUCKETS;
+    private static final int BUCKETS = 64 * SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    public void record(long value) {
+        long v = Math.max(0, value);
+        counts.incrementAndGet(index(v));
+        max.accumulate(v);
+    }
+
+    static int index(long value) {
+        if (value < EXACT_LIMIT)
+            return (int) value;
+        int shift = 63 - Long.numberOfLeadingZeros(value) - 4;
+        return shift * SUB_BUCKETS + (int) (value >>> shift);
+    }
+
+    /**
+     * Largest value that falls into the bucket.
+     */
+    static long highestValue(int index) {
+        if (index < EXACT_LIMIT)
+            return index;
+        int shift = index / SUB_BUCKETS - 1;
+        long sub = index - (long) shift * SUB_BUCKETS;
+        return ((sub + 1) << shift) - 1;
+    }
+
+    public Snapshot snapshot() {
+        long[] copy = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++)
+            copy[i] = counts.get(i);
+        return new Snapshot(copy, max.get());
+    }
+
+    static final class Snapshot {
+        private final long[] counts;
+        private final long total;
+        private final long max;
+
+        private Snapshot(long[] counts, long max) {
+            this.counts = counts;
+            long sum = 0;
+            for (long count : counts)
+                sum += count;
+            this.total = sum;
+            this.max = max;
+        }
+
+        public long getCount() {
+            return total;
+        }
+
+        public long getMax() {
+            return max;
+        }
+
+        /**
+         * The value at or below which {@code percentile} percent of the recorded values fall,
+         * rounded up to its bucket (and never above the largest recorded value).
+         */
+        public long valueAtPercentile(double percentile) {
+            if (total == 0)
+                return 0;
+            long rank = Math.max(1, (long) Math.ceil(percentile / 100 * total));
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= rank)
+                    return Math.min(highestValue(i), max);
+            }
+            return max;
+        }
+    }
+}
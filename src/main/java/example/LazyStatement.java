@@ -0,0 +1,153 @@
+package example;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A customer's statement whose parts are computed on first access and then remembered:
+ * {@link #totals()} prices the rentals without touching titles or formatting anything,
+ * {@link #lines()} adds the per-rental figures, and only {@link #text()} renders.
+ * <p>
+ * Parts computed from the lines reuse them rather than pricing the rentals again. Each
+ * part reflects the rentals at the time it is first computed. Instances may be shared
+ * between threads: every memoized value is immutable, so a racing first access at worst
+ * computes the same value twice.
+ */
+final class LazyStatement {
+    private final Customer customer;
+    private BillingTotals totals;
+    private List<Line> lines;
+    private String text;
+
+    LazyStatement(Customer customer) {
+        this.customer = customer;
+    }
+
+    public Customer getCustomer() {
+        return customer;
+    }
+
+    public BillingTotals totals() {
+        BillingTotals result = totals;
+        if (result == null) {
+            List<Line> computed = lines;
+            result = computed == null ? customer.totals() : sum(computed);
+            totals = result;
+        }
+        return result;
+    }
+
+    public long getAmountCents() {
+        return totals().getAmountCents();
+    }
+
+    public long getFrequentRenterPoints() {
+        return totals().getFrequentRenterPoints();
+    }
+
+    public List<Line> lines() {
+        List<Line> result = lines;
+        if (result == null) {
+            RentalSource rentals = customer.rentals();
+            PriceTable prices = customer.prices();
+            List<Line> computed = new ArrayList<>(rentals.size());
+            for (int i = 0, n = rentals.size(); i < n; i++) {
+                Movie.MovieType type = rentals.type(i);
+                int daysRented = rentals.daysRented(i);
+                computed.add(new Line(rentals.title(i), type, daysRented,
+                        prices.chargeCents(type, daysRented), prices.frequentRenterPoints(type, daysRented)));
+            }
+            result = Collections.unmodifiableList(computed);
+            lines = result;
+        }
+        return result;
+    }
+
+    /**
+     * The same text as {@link Customer#statement()}.
+     */
+    public String text() {
+        String result = text;
+        if (result == null) {
+            List<Line> computed = lines;
+            result = computed == null ? customer.statement() : render(computed);
+            text = result;
+        }
+        return result;
+    }
+
+    private String render(List<Line> lines) {
+        int length = Customer.estimatedHeaderAndFooterLength(customer.getName());
+        for (Line line : lines)
+            length += Customer.estimatedLineLength(line.getTitle());
+        StringBuilder out = new StringBuilder(length);
+        try {
+            Customer.appendHeader(out, customer.getName());
+            for (Line line : lines)
+                Customer.appendLine(out, line.getTitle(), line.getAmountCents());
+            BillingTotals sums = totals();
+            Customer.appendFooter(out, sums.getAmountCents(), sums.getFrequentRenterPoints());
+        } catch (IOException e) {
+            // StringBuilder never throws
+            throw new UncheckedIOException(e);
+        }
+        return out.toString();
+    }
+
+    private static BillingTotals sum(List<Line> lines) {
+        long amount = 0;
+        long points = 0;
+        for (Line line : lines) {
+            amount += line.getAmountCents();
+            points += line.getFrequentRenterPoints();
+        }
+        return new BillingTotals(lines.size(), amount, points);
+    }
+
+    @Override
+    public String toString() {
+        return text();
+    }
+
+    /**
+     * Figures of one rental line.
+     */
+    static final class Line {
+        private final String title;
+        private final Movie.MovieType type;
+        private final int daysRented;
+        private final long amountCents;
+        private final int frequentRenterPoints;
+
+        Line(String title, Movie.MovieType type, int daysRented, long amountCents, int frequentRenterPoints) {
+            this.title = title;
+            this.type = type;
+            this.daysRented = daysRented;
+            this.amountCents = amountCents;
+            this.frequentRenterPoints = frequentRenterPoints;
+        }
+
+        public String getTitle() {
+            return title;
+        }
+
+        public Movie.MovieType getType() {
+            return type;
+        }
+
+        public int getDaysRented() {
+            return daysRented;
+        }
+
+        public long getAmountCents() {
+            return amountCents;
+        }
+
+        public int getFrequentRenterPoints() {
+            return frequentRenterPoints;
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package example;
+
+import java.io.IOException;
+
+/**
+ * Amounts are carried as {@code long} cents so totals stay exact however many rentals are
+ * added up. This class formats them the way {@code Double.toString} formats the same
+ * amount ("2.0", "6.5", "12.25"), without allocating.
+ */
+final class Money {
+    /**
+     * From 10,000,000.00 up {@code Double.toString} switches to scientific notation.
+     */
+    private static final long PLAIN_LIMIT = 1_000_000_000L;
+
+    private Money() {
+    }
+
+    public static long cents(double amount) {
+        return Math.round(amount * 100);
+    }
+
+    public static double toDouble(long cents) {
+        return cents / 100.0;
+    }
+
+    public static String toString(long cents) {
+        StringBuilder result = new StringBuilder(12);
+        append(result, cents);
+        return result.toString();
+    }
+
+    public static void append(StringBuilder out, long cents) {
+        if (cents >= PLAIN_LIMIT || cents <= -PLAIN_LIMIT) {
+            out.append(toDouble(cents));
+            return;
+        }
+        if (cents < 0) {
+            out.append('-');
+            cents = -cents;
+        }
+        out.append(cents / 100).append('.');
+        appendFraction(out, (int) (cents % 100));
+    }
+
+    public static void append(Appendable out, long cents) throws IOException {
+        if (out instanceof StringBuilder sb) {
+            append(sb, cents);
+            return;
+        }
+        if (cents >= PLAIN_LIMIT || cents <= -PLAIN_LIMIT) {
+            out.append(Double.toString(toDouble(cents)));
+            return;
+        }
+        if (cents < 0) {
+            out.append('-');
+            cents = -cents;
+        }
+        long units = cents / 100;
+        long divisor = 1;
+        while (divisor * 10 <= units)
+            divisor *= 10;
+        for (; divisor > 0; divisor /= 10)
+            out.append((char) ('0' + units / divisor % 10));
+        out.append('.');
+        appendFraction(out, (int) (cents % 100));
+    }
+
+    private static void appendFraction(Appendable out, int fraction) throws IOException {
+        out.append((char) ('0' + fraction / 10));
+        if (fraction % 10 != 0)
+            out.append((char) ('0' + fraction % 10));
+    }
+
+    private static void appendFraction(StringBuilder out, int fraction) {
+        out.append((char) ('0' + fraction / 10));
+        if (fraction % 10 != 0)
+            out.append((char) ('0' + fraction % 10));
+    }
+}
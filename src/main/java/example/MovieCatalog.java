@@ -0,0 +1,98 @@
+package example;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Hands out one canonical {@link Movie} per title, addressable by a dense integer id.
+ * <p>
+ * Lookups never lock: titles resolve through a {@link ConcurrentHashMap} and ids index a
+ * volatile array. Registration of a new title takes the catalog lock, which only
+ * happens once per title.
+ */
+class MovieCatalog {
+    private final Map<String, Integer> ids = new ConcurrentHashMap<>();
+    private volatile Movie[] movies;
+    private int size;
+
+    public MovieCatalog() {
+        this(64);
+    }
+
+    public MovieCatalog(int expectedMovies) {
+        movies = new Movie[Math.max(expectedMovies, 1)];
+    }
+
+    /**
+     * Returns the id of {@code title}, registering it first if it is new.
+     *
+     * @throws IllegalArgumentException if the title is already registered with another type
+     */
+    public int register(String title, Movie.MovieType type) {
+        Integer id = ids.get(title);
+        if (id == null) {
+            synchronized (this) {
+                id = ids.get(title);
+                if (id == null)
+                    id = add(new Movie(title, type));
+            }
+        }
+        Movie movie = movies[id];
+        if (movie.getPriceCode() != type)
+            throw new IllegalArgumentException(title + " is already registered as " + movie.getPriceCode());
+        return id;
+    }
+
+    /**
+     * Registers every movie under one lock acquisition.
+     */
+    public synchronized void registerAll(Iterable<Movie> catalog) {
+        for (Movie movie : catalog) {
+            Integer id = ids.get(movie.getTitle());
+            if (id == null)
+                add(movie);
+            else if (movies[id].getPriceCode() != movie.getPriceCode())
+                throw new IllegalArgumentException(movie.getTitle() + " is already registered as " + movies[id].getPriceCode());
+        }
+    }
+
+    private int add(Movie movie) {
+        Movie[] current = movies;
+        if (size == current.length)
+            current = Arrays.copyOf(current, size * 2);
+        int id = size++;
+        current[id] = movie;
+        // volatile write publishes the slot before the id becomes visible through the map
+        movies = current;
+        ids.put(movie.getTitle(), id);
+        return id;
+    }
+
+    public Movie movie(int id) {
+        Movie[] current = movies;
+        if (id < 0 || id >= current.length || current[id] == null)
+            throw new IllegalArgumentException("Unknown movie id: " + id);
+        return current[id];
+    }
+
+    /**
+     * @return the canonical movie, or {@code null} if the title is not registered
+     */
+    public Movie movie(String title) {
+        Integer id = ids.get(title);
+        return id == null ? null : movies[id];
+    }
+
+    /**
+     * @return the id of the title, or -1 if it is not registered
+     */
+    public int id(String title) {
+        Integer id = ids.get(title);
+        return id == null ? -1 : id;
+    }
+
+    public int size() {
+        return ids.size();
+    }
+}
@@ -0,0 +1,153 @@
+package example;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Rental storage outside the Java heap, for customers with millions of historic rentals.
+ * <p>
+ * Each rental is an 8-byte record in a direct buffer: the days rented, and the movie's
+ * {@link MovieCatalog} id packed with its type code. The garbage collector sees only a
+ * handful of buffer objects however many rentals are stored, and nothing is copied on
+ * growth: records fill fixed-size chunks of {@code 2^chunkShift} records, and a new
+ * chunk is added when the last one is full. Reading a rental, and so billing a
+ * {@link Customer} backed by the store, allocates nothing; titles come from the catalog.
+ * <p>
+ * Off-heap memory is returned when the store becomes unreachable and its buffers are
+ * collected. Not safe for concurrent writes; publish the store safely after filling it.
+ */
+class OffHeapRentalStore implements RentalSource {
+    static final int RECORD_SIZE = 8;
+    /**
+     * 2^20 records of 8 bytes: 8 MB per chunk.
+     */
+    static final int DEFAULT_CHUNK_SHIFT = 20;
+
+    private static final Movie.MovieType[] TYPES = Movie.MovieType.values();
+    private static final int TYPE_BITS = 2;
+    private static final int TYPE_MASK = (1 << TYPE_BITS) - 1;
+    private static final int MAX_TITLE_ID = Integer.MAX_VALUE >>> TYPE_BITS;
+
+    static {
+        if (TYPES.length > 1 << TYPE_BITS)
+            throw new AssertionError("Too many movie types for " + TYPE_BITS + " bits");
+    }
+
+    private final MovieCatalog catalog;
+    private final int chunkShift;
+    private final int chunkMask;
+    private ByteBuffer[] chunks = new ByteBuffer[4];
+    private int chunkCount;
+    private int size;
+
+    public OffHeapRentalStore(MovieCatalog catalog) {
+        this(catalog, DEFAULT_CHUNK_SHIFT);
+    }
+
+    OffHeapRentalStore(MovieCatalog catalog, int chunkShift) {
+        if (chunkShift < 0 || chunkShift > 27)
+            throw new IllegalArgumentException("chunkShift out of range: " + chunkShift);
+        this.catalog = catalog;
+        this.chunkShift = chunkShift;
+        this.chunkMask = (1 << chunkShift) - 1;
+    }
+
+    public static OffHeapRentalStore of(MovieCatalog catalog, List<Rental> rentals) {
+        OffHeapRentalStore store = new OffHeapRentalStore(catalog);
+        for (Rental each : rentals)
+            store.add(each);
+        return store;
+    }
+
+    public void add(Rental rental) {
+        Movie movie = rental.getMovie();
+        add(catalog.register(movie.getTitle(), movie.getPriceCode()), movie.getPriceCode(), rental.getDaysRented());
+    }
+
+    /**
+     * @param titleId id of the title in this store's catalog
+     */
+    public void add(int titleId, Movie.MovieType type, int days) {
+        if (titleId < 0 || titleId > MAX_TITLE_ID)
+            throw new IllegalArgumentException("Title id out of range: " + titleId);
+        if (size == Integer.MAX_VALUE)
+            throw new IllegalStateException("Store is full");
+        int offset = (size & chunkMask) * RECORD_SIZE;
+        if (offset == 0)
+            addChunk();
+        ByteBuffer chunk = chunks[chunkCount - 1];
+        chunk.putInt(offset, days);
+        chunk.putInt(offset + 4, titleId << TYPE_BITS | type.ordinal());
+        size++;
+    }
+
+    private void addChunk() {
+        if (chunkCount == chunks.length)
+            chunks = Arrays.copyOf(chunks, chunkCount * 2);
+        chunks[chunkCount++] = ByteBuffer.allocateDirect(RECORD_SIZE << chunkShift).order(ByteOrder.nativeOrder());
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public String title(int index) {
+        return catalog.movie(titleId(index)).getTitle();
+    }
+
+    public int titleId(int index) {
+        return titleAndType(index) >>> TYPE_BITS;
+    }
+
+    @Override
+    public Movie.MovieType type(int index) {
+        return TYPES[titleAndType(index) & TYPE_MASK];
+    }
+
+    @Override
+    public int daysRented(int index) {
+        Objects.checkIndex(index, size);
+        return chunks[index >>> chunkShift].getInt((index & chunkMask) * RECORD_SIZE);
+    }
+
+    private int titleAndType(int index) {
+        Objects.checkIndex(index, size);
+        return chunks[index >>> chunkShift].getInt((index & chunkMask) * RECORD_SIZE + 4);
+    }
+
+    /**
+     * Off-heap bytes reserved by the store's chunks.
+     */
+    public long reservedBytes() {
+        return (long) chunkCount * (RECORD_SIZE << chunkShift);
+    }
+
+    public long totalAmountCents(PriceTable prices) {
+        long total = 0;
+        for (int c = 0; c < chunkCount; c++) {
+            ByteBuffer chunk = chunks[c];
+            for (int offset = 0, end = recordsIn(c) * RECORD_SIZE; offset < end; offset += RECORD_SIZE)
+                total += prices.chargeCents(chunk.getInt(offset + 4) & TYPE_MASK, chunk.getInt(offset));
+        }
+        return total;
+    }
+
+    public long frequentRenterPoints(PriceTable prices) {
+        long total = 0;
+        for (int c = 0; c < chunkCount; c++) {
+            ByteBuffer chunk = chunks[c];
+            for (int offset = 0, end = recordsIn(c) * RECORD_SIZE; offset < end; offset += RECORD_SIZE)
+                total += prices.frequentRenterPoints(chunk.getInt(offset + 4) & TYPE_MASK, chunk.getInt(offset));
+        }
+        return total;
+    }
+
+    private int recordsIn(int chunk) {
+        return chunk < chunkCount - 1 ? 1 << chunkShift : size - (chunk << chunkShift);
+    }
+}
@@ -0,0 +1,42 @@
+package example;
+
+/**
+ * {@link PointsRules} compiled for one price table and billing date: a {@link PriceTable}
+ * per tier whose points already include every rule. Picking a customer's table costs one
+ * comparison per tier; billing then runs the ordinary pricing loop, which adds up charges
+ * and ruled points in the same pass without allocating anything per rental.
+ */
+final class PointsProgram {
+    private final int[] tierMinRentals;
+    private final PriceTable[] tables;
+
+    PointsProgram(int[] tierMinRentals, PriceTable[] tables) {
+        this.tierMinRentals = tierMinRentals;
+        this.tables = tables;
+    }
+
+    public int tiers() {
+        return tables.length;
+    }
+
+    /**
+     * The tier of a statement with {@code rentals} rentals, 0 being the lowest.
+     */
+    public int tier(int rentals) {
+        int tier = tables.length - 1;
+        while (tier > 0 && rentals < tierMinRentals[tier])
+            tier--;
+        return tier;
+    }
+
+    public PriceTable priceTable(int tier) {
+        return tables[tier];
+    }
+
+    /**
+     * A customer billed with the table of the tier their rentals reach.
+     */
+    public Customer customer(String name, RentalSource rentals) {
+        return new Customer(name, rentals, tables[tier(rentals.size())]);
+    }
+}
@@ -0,0 +1,177 @@
+package example;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Loyalty rules layered on the frequent renter points of a {@link PriceTable}. A rental
+ * earns its base points, plus the bonus of every promotion running on the billing date for
+ * its movie type, times its type's multiplier and its customer's tier multiplier (rounded
+ * down), capped at the per-rental maximum. A customer's tier is the highest one whose
+ * minimum number of rentals the statement reaches.
+ * <p>
+ * Rules are immutable; each {@code with...} method returns a changed copy. {@link #compile}
+ * folds them into one {@code PriceTable} per tier, so billing still does a single lookup
+ * per rental and never sees the rules themselves.
+ */
+final class PointsRules {
+    private static final Movie.MovieType[] TYPES = Movie.MovieType.values();
+    private static final int PERCENT = 100;
+
+    /** Base points only, exactly as the price table awards them. */
+    static final PointsRules STANDARD = new PointsRules(full(PERCENT), List.of(), new int[]{0}, new int[]{PERCENT},
+            Integer.MAX_VALUE);
+
+    private final int[] typePercents;
+    private final List<Promotion> promotions;
+    private final int[] tierMinRentals;
+    private final int[] tierPercents;
+    private final int rentalCap;
+
+    private PointsRules(int[] typePercents, List<Promotion> promotions, int[] tierMinRentals, int[] tierPercents,
+                        int rentalCap) {
+        this.typePercents = typePercents;
+        this.promotions = promotions;
+        this.tierMinRentals = tierMinRentals;
+        this.tierPercents = tierPercents;
+        this.rentalCap = rentalCap;
+    }
+
+    private static int[] full(int value) {
+        int[] values = new int[TYPES.length];
+        Arrays.fill(values, value);
+        return values;
+    }
+
+    /**
+     * Multiplies the points of every rental of {@code type}, e.g. 200 doubles them.
+     */
+    public PointsRules withMultiplier(Movie.MovieType type, int percent) {
+        requireNotNegative("percent", percent);
+        int[] changed = typePercents.clone();
+        changed[type.ordinal()] = percent;
+        return new PointsRules(changed, promotions, tierMinRentals, tierPercents, rentalCap);
+    }
+
+    /**
+     * Adds {@code bonusPoints} to every rental of {@code type} billed from {@code from} to
+     * {@code until}, both inclusive.
+     */
+    public PointsRules withPromotion(LocalDate from, LocalDate until, Movie.MovieType type, int bonusPoints) {
+        if (until.isBefore(from))
+            throw new IllegalArgumentException("Promotion ends before it starts: " + from + " to " + until);
+        requireNotNegative("bonusPoints", bonusPoints);
+        List<Promotion> changed = new ArrayList<>(promotions);
+        changed.add(new Promotion(from, until, type, bonusPoints));
+        return new PointsRules(typePercents, List.copyOf(changed), tierMinRentals, tierPercents, rentalCap);
+    }
+
+    /**
+     * Multiplies the points of customers with at least {@code minRentals} rentals on their
+     * statement. Replaces an existing tier with the same minimum.
+     */
+    public PointsRules withTier(int minRentals, int percent) {
+        requireNotNegative("minRentals", minRentals);
+        requireNotNegative("percent", percent);
+        int at = Arrays.binarySearch(tierMinRentals, minRentals);
+        if (at >= 0) {
+            int[] percents = tierPercents.clone();
+            percents[at] = percent;
+            return new PointsRules(typePercents, promotions, tierMinRentals, percents, rentalCap);
+        }
+        int insert = -at - 1;
+        int[] minimums = new int[tierMinRentals.length + 1];
+        int[] percents = new int[tierPercents.length + 1];
+        System.arraycopy(tierMinRentals, 0, minimums, 0, insert);
+        System.arraycopy(tierPercents, 0, percents, 0, insert);
+        minimums[insert] = minRentals;
+        percents[insert] = percent;
+        System.arraycopy(tierMinRentals, insert, minimums, insert + 1, tierMinRentals.length - insert);
+        System.arraycopy(tierPercents, insert, percents, insert + 1, tierPercents.length - insert);
+        return new PointsRules(typePercents, promotions, minimums, percents, rentalCap);
+    }
+
+    /**
+     * Limits the points a single rental can earn after all other rules.
+     */
+    public PointsRules withRentalCap(int maxPoints) {
+        requireNotNegative("maxPoints", maxPoints);
+        return new PointsRules(typePercents, promotions, tierMinRentals, tierPercents, maxPoints);
+    }
+
+    private static void requireNotNegative(String name, int value) {
+        if (value < 0)
+            throw new IllegalArgumentException(name + " must not be negative: " + value);
+    }
+
+    /**
+     * Evaluates the rules for every tier, movie type and rental length of {@code prices}
+     * once, for statements billed on {@code billingDate}. The result is shared by all
+     * customers billed that day.
+     */
+    public PointsProgram compile(PriceTable prices, LocalDate billingDate) {
+        int[] bonuses = new int[TYPES.length];
+        for (Promotion promotion : promotions) {
+            if (!billingDate.isBefore(promotion.from) && !billingDate.isAfter(promotion.until))
+                bonuses[promotion.type.ordinal()] += promotion.bonusPoints;
+        }
+        Map<Movie.MovieType, PricingPolicy> base = prices.policies();
+        PriceTable[] tables = new PriceTable[tierMinRentals.length];
+        for (int tier = 0; tier < tables.length; tier++) {
+            Map<Movie.MovieType, PricingPolicy> policies = new EnumMap<>(Movie.MovieType.class);
+            for (Movie.MovieType type : TYPES) {
+                int t = type.ordinal();
+                policies.put(type, new RuledPolicy(base.get(type), bonuses[t],
+                        (long) typePercents[t] * tierPercents[tier], rentalCap));
+            }
+            tables[tier] = PriceTable.of(policies, prices.getMaxDays());
+        }
+        return new PointsProgram(tierMinRentals.clone(), tables);
+    }
+
+    private static final class Promotion {
+        final LocalDate from;
+        final LocalDate until;
+        final Movie.MovieType type;
+        final int bonusPoints;
+
+        Promotion(LocalDate from, LocalDate until, Movie.MovieType type, int bonusPoints) {
+            this.from = from;
+            this.until = until;
+            this.type = type;
+            this.bonusPoints = bonusPoints;
+        }
+    }
+
+    /**
+     * Charges as the base policy; points with the rules for one tier and billing date applied.
+     */
+    private static final class RuledPolicy implements PricingPolicy {
+        private final PricingPolicy base;
+        private final int bonusPoints;
+        private final long percentSquared;
+        private final int rentalCap;
+
+        RuledPolicy(PricingPolicy base, int bonusPoints, long percentSquared, int rentalCap) {
+            this.base = base;
+            this.bonusPoints = bonusPoints;
+            this.percentSquared = percentSquared;
+            this.rentalCap = rentalCap;
+        }
+
+        @Override
+        public long chargeCents(int daysRented) {
+            return base.chargeCents(daysRented);
+        }
+
+        @Override
+        public int frequentRenterPoints(int daysRented) {
+            long points = ((long) base.frequentRenterPoints(daysRented) + bonusPoints) * percentSquared / (PERCENT * PERCENT);
+            return (int) Math.min(points, rentalCap);
+        }
+    }
+}
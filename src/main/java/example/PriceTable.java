@@ -0,0 +1,102 @@
+package example;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Charges (in cents) and frequent renter points precomputed for every movie type and every rental
+ * length from 0 to {@code maxDays}, so billing a rental is an array lookup. Longer (or
+ * negative) rentals fall back to the type's {@link PricingPolicy}.
+ * <p>
+ * Tables are immutable; when rates change, build a new one with {@link #withPolicy}
+ * (or let a {@link PricingRegistry} do it).
+ */
+final class PriceTable {
+    private static final Movie.MovieType[] TYPES = Movie.MovieType.values();
+
+    static final int DEFAULT_MAX_DAYS = 60;
+    static final PriceTable STANDARD = standard(DEFAULT_MAX_DAYS);
+
+    private final PricingPolicy[] policies;
+    private final int maxDays;
+    private final int stride;
+    private final long[] charges;
+    private final int[] points;
+
+    private PriceTable(PricingPolicy[] policies, int maxDays) {
+        if (maxDays < 0)
+            throw new IllegalArgumentException("maxDays must not be negative: " + maxDays);
+        this.policies = policies;
+        this.maxDays = maxDays;
+        this.stride = maxDays + 1;
+        this.charges = new long[TYPES.length * stride];
+        this.points = new int[TYPES.length * stride];
+        for (int type = 0; type < TYPES.length; type++) {
+            for (int days = 0; days <= maxDays; days++) {
+                charges[type * stride + days] = policies[type].chargeCents(days);
+                points[type * stride + days] = policies[type].frequentRenterPoints(days);
+            }
+        }
+    }
+
+    public static PriceTable standard(int maxDays) {
+        PricingPolicy[] policies = new PricingPolicy[TYPES.length];
+        for (Movie.MovieType type : TYPES)
+            policies[type.ordinal()] = Tariff.standard(type);
+        return new PriceTable(policies, maxDays);
+    }
+
+    public static PriceTable of(Map<Movie.MovieType, ? extends PricingPolicy> policies, int maxDays) {
+        PricingPolicy[] byType = new PricingPolicy[TYPES.length];
+        for (Movie.MovieType type : TYPES) {
+            byType[type.ordinal()] = policies.get(type);
+            if (byType[type.ordinal()] == null)
+                throw new IllegalArgumentException("No pricing policy for " + type);
+        }
+        return new PriceTable(byType, maxDays);
+    }
+
+    /**
+     * Rebuilds the table with a new policy for one movie type.
+     */
+    public PriceTable withPolicy(Movie.MovieType type, PricingPolicy policy) {
+        PricingPolicy[] changed = policies.clone();
+        changed[type.ordinal()] = policy;
+        return new PriceTable(changed, maxDays);
+    }
+
+    public Map<Movie.MovieType, PricingPolicy> policies() {
+        Map<Movie.MovieType, PricingPolicy> result = new EnumMap<>(Movie.MovieType.class);
+        for (Movie.MovieType type : TYPES)
+            result.put(type, policies[type.ordinal()]);
+        return result;
+    }
+
+    PricingPolicy policy(int typeOrdinal) {
+        return policies[typeOrdinal];
+    }
+
+    public int getMaxDays() {
+        return maxDays;
+    }
+
+    public long chargeCents(Movie.MovieType type, int daysRented) {
+        return chargeCents(type.ordinal(), daysRented);
+    }
+
+    public int frequentRenterPoints(Movie.MovieType type, int daysRented) {
+        return frequentRenterPoints(type.ordinal(), daysRented);
+    }
+
+    long chargeCents(int typeOrdinal, int daysRented) {
+        if (daysRented >= 0 && daysRented <= maxDays)
+            return charges[typeOrdinal * stride + daysRented];
+        return policies[typeOrdinal].chargeCents(daysRented);
+    }
+
+    int frequentRenterPoints(int typeOrdinal, int daysRented) {
+        if (daysRented >= 0 && daysRented <= maxDays)
+            return points[typeOrdinal * stride + daysRented];
+        return policies[typeOrdinal].frequentRenterPoints(daysRented);
+    }
+}
@@ -0,0 +1,17 @@
+package example;
+
+/**
+ * How rentals of one movie type are charged and rewarded. Implementations are registered
+ * per {@link Movie.MovieType} in a {@link PricingRegistry}.
+ * <p>
+ * Policies are consulted when a {@link PriceTable} is built, once per type and day count,
+ * and afterwards only for rentals longer than the table covers. The billing loop itself
+ * never calls them, so any number of implementations can be registered without turning
+ * its call sites megamorphic.
+ */
+interface PricingPolicy {
+
+    long chargeCents(int daysRented);
+
+    int frequentRenterPoints(int daysRented);
+}
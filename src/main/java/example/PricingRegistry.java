@@ -0,0 +1,62 @@
+package example;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * The {@link PricingPolicy} of every movie type, replaceable at runtime. Each change
+ * rebuilds the registry's {@link PriceTable} and bumps its {@link #version()}; billing
+ * code reads {@link #priceTable()}, which is a volatile read and never blocks.
+ */
+class PricingRegistry {
+    private final int maxDays;
+    private final Map<Movie.MovieType, PricingPolicy> policies = new EnumMap<>(Movie.MovieType.class);
+    private volatile PriceTable priceTable;
+    private volatile long version;
+
+    /**
+     * Starts with the standard {@link Tariff} of every movie type.
+     */
+    public PricingRegistry() {
+        this(PriceTable.DEFAULT_MAX_DAYS);
+    }
+
+    public PricingRegistry(int maxDays) {
+        this.maxDays = maxDays;
+        for (Movie.MovieType type : Movie.MovieType.values())
+            policies.put(type, Tariff.standard(type));
+        priceTable = PriceTable.of(policies, maxDays);
+    }
+
+    public synchronized void register(Movie.MovieType type, PricingPolicy policy) {
+        registerAll(Map.of(type, policy));
+    }
+
+    /**
+     * Replaces several policies at once, rebuilding the price table a single time.
+     */
+    public synchronized void registerAll(Map<Movie.MovieType, ? extends PricingPolicy> changes) {
+        for (Map.Entry<Movie.MovieType, ? extends PricingPolicy> change : changes.entrySet()) {
+            if (change.getValue() == null)
+                throw new IllegalArgumentException("No pricing policy for " + change.getKey());
+        }
+        policies.putAll(changes);
+        priceTable = PriceTable.of(policies, maxDays);
+        version++;
+    }
+
+    public synchronized PricingPolicy policy(Movie.MovieType type) {
+        return policies.get(type);
+    }
+
+    public PriceTable priceTable() {
+        return priceTable;
+    }
+
+    /**
+     * Incremented on every registration, so callers can tell that prices may have changed.
+     */
+    public long version() {
+        return version;
+    }
+}
@@ -0,0 +1,137 @@
+package example;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Pre-aggregated rental counts, revenue and frequent renter points by customer segment,
+ * {@link Movie.MovieType} and days rented, updated as rentals arrive.
+ * <p>
+ * Days up to {@code maxDays} each have their own bucket; longer rentals share one
+ * overflow bucket, so a query can ask for any range within {@code 0..maxDays}, or for
+ * everything from some day on. A query sums at most {@code segments x types x (maxDays + 2)}
+ * cells, however many rentals were added. Revenue and points are fixed at the prices in
+ * effect when each rental was added.
+ * <p>
+ * Safe for concurrent use: each cell is updated atomically, and queries see every
+ * completed addition, though not necessarily all figures of one still in progress.
+ */
+class RentalAnalyticsIndex {
+    /**
+     * Query bound meaning "no upper limit on days rented".
+     */
+    public static final int UNBOUNDED = Integer.MAX_VALUE;
+
+    private static final Movie.MovieType[] TYPES = Movie.MovieType.values();
+
+    private final int segments;
+    private final int maxDays;
+    private final int buckets;
+    private final PriceTable prices;
+    private final AtomicLongArray rentals;
+    private final AtomicLongArray amountCents;
+    private final AtomicLongArray points;
+
+    public RentalAnalyticsIndex(int segments) {
+        this(segments, PriceTable.DEFAULT_MAX_DAYS, PriceTable.STANDARD);
+    }
+
+    public RentalAnalyticsIndex(int segments, int maxDays, PriceTable prices) {
+        if (segments < 1 || maxDays < 0)
+            throw new IllegalArgumentException("Invalid dimensions: " + segments + " segments, " + maxDays + " days");
+        long cells = (long) segments * TYPES.length * (maxDays + 2);
+        if (cells > Integer.MAX_VALUE)
+            throw new IllegalArgumentException("Too many cells: " + cells);
+        this.segments = segments;
+        this.maxDays = maxDays;
+        this.buckets = maxDays + 2;
+        this.prices = prices;
+        rentals = new AtomicLongArray((int) cells);
+        amountCents = new AtomicLongArray((int) cells);
+        points = new AtomicLongArray((int) cells);
+    }
+
+    public int getSegments() {
+        return segments;
+    }
+
+    public int getMaxDays() {
+        return maxDays;
+    }
+
+    public void add(int segment, Movie.MovieType type, int daysRented) {
+        if (daysRented < 0)
+            throw new IllegalArgumentException("Negative days rented: " + daysRented);
+        int cell = cell(segment, type.ordinal(), Math.min(daysRented, maxDays + 1));
+        rentals.getAndIncrement(cell);
+        amountCents.getAndAdd(cell, prices.chargeCents(type, daysRented));
+        points.getAndAdd(cell, prices.frequentRenterPoints(type, daysRented));
+    }
+
+    public void add(int segment, Rental rental) {
+        add(segment, rental.getMovie().getPriceCode(), rental.getDaysRented());
+    }
+
+    /**
+     * Adds every rental of {@code customer}, priced with this index's table.
+     */
+    public void add(int segment, Customer customer) {
+        RentalSource source = customer.rentals();
+        for (int i = 0, n = source.size(); i < n; i++)
+            add(segment, source.type(i), source.daysRented(i));
+    }
+
+    private int cell(int segment, int type, int bucket) {
+        if (segment < 0 || segment >= segments)
+            throw new IndexOutOfBoundsException("Segment " + segment + " out of bounds for " + segments);
+        return (segment * TYPES.length + type) * buckets + bucket;
+    }
+
+    /**
+     * Figures of {@code type} rentals of {@code fromDays} to {@code toDays} days (inclusive)
+     * in one segment. {@code toDays} must be at most {@code maxDays} or {@link #UNBOUNDED}.
+     */
+    public BillingTotals totals(int segment, Movie.MovieType type, int fromDays, int toDays) {
+        return sum(segment, segment, type.ordinal(), type.ordinal(), fromDays, toDays);
+    }
+
+    /**
+     * Figures of {@code type} rentals of {@code fromDays} to {@code toDays} days across all
+     * segments.
+     */
+    public BillingTotals totals(Movie.MovieType type, int fromDays, int toDays) {
+        return sum(0, segments - 1, type.ordinal(), type.ordinal(), fromDays, toDays);
+    }
+
+    /**
+     * Figures of every rental in one segment.
+     */
+    public BillingTotals totals(int segment) {
+        return sum(segment, segment, 0, TYPES.length - 1, 0, UNBOUNDED);
+    }
+
+    public BillingTotals totals() {
+        return sum(0, segments - 1, 0, TYPES.length - 1, 0, UNBOUNDED);
+    }
+
+    private BillingTotals sum(int fromSegment, int toSegment, int fromType, int toType, int fromDays, int toDays) {
+        if (fromDays < 0 || fromDays > toDays || fromDays > maxDays + 1
+                || (toDays > maxDays && toDays != UNBOUNDED))
+            throw new IllegalArgumentException("Day range " + fromDays + ".." + toDays
+                    + " not resolvable with buckets up to " + maxDays + " days");
+        int lastBucket = toDays == UNBOUNDED ? maxDays + 1 : toDays;
+        long count = 0;
+        long amount = 0;
+        long sumPoints = 0;
+        for (int segment = fromSegment; segment <= toSegment; segment++) {
+            for (int type = fromType; type <= toType; type++) {
+                int first = cell(segment, type, fromDays);
+                for (int cell = first, last = first + lastBucket - fromDays; cell <= last; cell++) {
+                    count += rentals.get(cell);
+                    amount += amountCents.get(cell);
+                    sumPoints += points.get(cell);
+                }
+            }
+        }
+        return new BillingTotals(count, amount, sumPoints);
+    }
+}
@@ -0,0 +1,402 @@
+package example;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+import static java.nio.file.StandardOpenOption.READ;
+
+/**
+ * Imports delimited rental exports with the columns customer, title, type and days.
+ * <p>
+ * Input is read through a reused NIO buffer and split into fields by scanning bytes; only
+ * customer names and previously unseen titles are decoded into strings. Titles resolve to
+ * canonical movies through a {@link MovieCatalog}. Fields may be double-quoted (with
+ * {@code ""} as an escaped quote) but may not span lines.
+ * <p>
+ * Consecutive rows of the same customer make up one {@link Customer}, so only one
+ * customer's rentals are held at a time; an export that is not sorted by customer yields
+ * one customer per run of rows. Malformed input fails with an {@link IOException} naming
+ * the line.
+ */
+class RentalImporter {
+    static final int DEFAULT_BUFFER_SIZE = 1 << 16;
+    static final int BATCH_SIZE = 256;
+    static final int QUEUE_CAPACITY = 16;
+
+    private static final int FIELDS = 4;
+    private static final int TITLE_CACHE_SIZE = 1024;
+    private static final Movie.MovieType[] TYPES = Movie.MovieType.values();
+    private static final byte[][] TYPE_NAMES = new byte[TYPES.length][];
+    private static final List<Customer> END = new ArrayList<>(0);
+
+    static {
+        for (Movie.MovieType type : TYPES)
+            TYPE_NAMES[type.ordinal()] = type.name().getBytes(StandardCharsets.US_ASCII);
+    }
+
+    private final MovieCatalog catalog;
+    private final byte delimiter;
+    private final boolean header;
+    private final int bufferSize;
+
+    public static RentalImporter csv(MovieCatalog catalog) {
+        return new RentalImporter(catalog, ',', true);
+    }
+
+    public static RentalImporter tsv(MovieCatalog catalog) {
+        return new RentalImporter(catalog, '\t', true);
+    }
+
+    /**
+     * @param header whether the first non-blank line holds column names and is skipped
+     */
+    public RentalImporter(MovieCatalog catalog, char delimiter, boolean header) {
+        this(catalog, delimiter, header, DEFAULT_BUFFER_SIZE);
+    }
+
+    RentalImporter(MovieCatalog catalog, char delimiter, boolean header, int bufferSize) {
+        if (delimiter > 0x7F || delimiter == '"' || delimiter == '\n' || delimiter == '\r')
+            throw new IllegalArgumentException("Unsupported delimiter: " + delimiter);
+        this.catalog = catalog;
+        this.delimiter = (byte) delimiter;
+        this.header = header;
+        this.bufferSize = bufferSize;
+    }
+
+    /**
+     * Parses the whole input on the calling thread, handing over each customer as soon as
+     * its last row has been read.
+     *
+     * @return the number of rental rows read
+     */
+    public long parse(ReadableByteChannel in, Consumer<Customer> customers) throws IOException {
+        Parser parser = new Parser(customers);
+        ByteBuffer buffer = ByteBuffer.allocate(bufferSize);
+        int scanned = 0;
+        while (in.read(buffer) >= 0) {
+            byte[] bytes = buffer.array();
+            int limit = buffer.position();
+            int lineStart = 0;
+            for (int i = scanned; i < limit; i++) {
+                if (bytes[i] == '\n') {
+                    parser.line(bytes, lineStart, i);
+                    lineStart = i + 1;
+                }
+            }
+            buffer.flip();
+            if (lineStart == 0 && limit == bytes.length) {
+                // a line longer than the buffer: keep all of it and read on into a bigger one
+                buffer = ByteBuffer.allocate(bytes.length * 2).put(buffer);
+            } else {
+                buffer.position(lineStart);
+                buffer.compact();
+            }
+            scanned = buffer.position();
+        }
+        parser.line(buffer.array(), 0, buffer.position());
+        parser.finish();
+        return parser.rows;
+    }
+
+    public BillingReport run(Path file, BillingEngine engine, BiConsumer<Customer, String> sink)
+            throws IOException, InterruptedException {
+        try (FileChannel channel = FileChannel.open(file, READ)) {
+            return run(channel, engine, sink);
+        }
+    }
+
+    /**
+     * Parses on a dedicated thread while {@code engine} bills the customers parsed so far.
+     * Parsed customers travel in batches through a bounded queue, so a parser that runs
+     * ahead of billing blocks instead of buffering the input. Statements of customers
+     * before a malformed line may already have reached the sink when the error is thrown.
+     */
+    public BillingReport run(ReadableByteChannel in, BillingEngine engine, BiConsumer<Customer, String> sink)
+            throws IOException, InterruptedException {
+        BlockingQueue<List<Customer>> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        Thread parser = new Thread(() -> {
+            Batcher batcher = new Batcher(queue);
+            try {
+                parse(in, batcher);
+                batcher.flush();
+            } catch (Cancelled e) {
+                return;
+            } catch (Throwable t) {
+                failure.set(t);
+            }
+            try {
+                put(queue, END);
+            } catch (Cancelled e) {
+                // billing already stopped
+            }
+        }, "rental-import");
+        parser.setDaemon(true);
+        parser.start();
+        try {
+            return engine.run(new QueueIterator(queue, failure), sink);
+        } catch (ParseFailure e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException io)
+                throw io;
+            if (cause instanceof InterruptedException interrupted)
+                throw interrupted;
+            if (cause instanceof RuntimeException runtime)
+                throw runtime;
+            throw (Error) cause;
+        } finally {
+            if (parser.isAlive())
+                parser.interrupt();
+            parser.join();
+        }
+    }
+
+    private static void put(BlockingQueue<List<Customer>> queue, List<Customer> batch) {
+        try {
+            queue.put(batch);
+        } catch (InterruptedException e) {
+            throw new Cancelled();
+        }
+    }
+
+    private static final class Batcher implements Consumer<Customer> {
+        private final BlockingQueue<List<Customer>> queue;
+        private List<Customer> batch = new ArrayList<>(BATCH_SIZE);
+
+        Batcher(BlockingQueue<List<Customer>> queue) {
+            this.queue = queue;
+        }
+
+        @Override
+        public void accept(Customer customer) {
+            batch.add(customer);
+            if (batch.size() == BATCH_SIZE)
+                flush();
+        }
+
+        void flush() {
+            if (!batch.isEmpty()) {
+                put(queue, batch);
+                batch = new ArrayList<>(BATCH_SIZE);
+            }
+        }
+    }
+
+    /**
+     * Unwinds the parser thread once billing has stopped consuming.
+     */
+    private static final class Cancelled extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        Cancelled() {
+            super(null, null, false, false);
+        }
+    }
+
+    /**
+     * Carries a parser failure out of the iterator handed to the engine.
+     */
+    private static final class ParseFailure extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        ParseFailure(Throwable cause) {
+            super(cause);
+        }
+    }
+
+    private static final class QueueIterator implements Iterator<Customer> {
+        private final BlockingQueue<List<Customer>> queue;
+        private final AtomicReference<Throwable> failure;
+        private List<Customer> batch = List.of();
+        private int next;
+
+        QueueIterator(BlockingQueue<List<Customer>> queue, AtomicReference<Throwable> failure) {
+            this.queue = queue;
+            this.failure = failure;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (next == batch.size()) {
+                if (batch == END)
+                    return false;
+                try {
+                    batch = queue.take();
+                } catch (InterruptedException e) {
+                    throw new ParseFailure(e);
+                }
+                next = 0;
+                if (batch == END && failure.get() != null)
+                    throw new ParseFailure(failure.get());
+            }
+            return true;
+        }
+
+        @Override
+        public Customer next() {
+            if (!hasNext())
+                throw new NoSuchElementException();
+            return batch.get(next++);
+        }
+    }
+
+    private final class Parser {
+        private final Consumer<Customer> customers;
+        private final int[] starts = new int[FIELDS];
+        private final int[] ends = new int[FIELDS];
+        private final boolean[] escaped = new boolean[FIELDS];
+        private final byte[][] cachedTitles = new byte[TITLE_CACHE_SIZE][];
+        private final Movie[] cachedMovies = new Movie[TITLE_CACHE_SIZE];
+        private boolean skipHeader = header;
+        private long lineNumber;
+        private long rows;
+        private byte[] customerBytes;
+        private String customerName;
+        private List<Rental> rentals;
+
+        Parser(Consumer<Customer> customers) {
+            this.customers = customers;
+        }
+
+        void line(byte[] bytes, int start, int end) throws IOException {
+            lineNumber++;
+            if (end > start && bytes[end - 1] == '\r')
+                end--;
+            if (start == end)
+                return;
+            if (skipHeader) {
+                skipHeader = false;
+                return;
+            }
+            int pos = start;
+            for (int field = 0; field < FIELDS; field++) {
+                if (field > 0) {
+                    if (pos == end || bytes[pos] != delimiter)
+                        throw malformed("expected " + FIELDS + " fields");
+                    pos++;
+                }
+                pos = field(bytes, pos, end, field);
+            }
+            if (pos != end)
+                throw malformed("expected " + FIELDS + " fields");
+
+            Movie.MovieType type = type(bytes, starts[2], ends[2]);
+            int days = days(bytes, starts[3], ends[3]);
+            Movie movie = movie(bytes, starts[1], ends[1], escaped[1], type);
+            if (customerBytes == null || !Arrays.equals(customerBytes, 0, customerBytes.length, bytes, starts[0], ends[0])) {
+                finish();
+                customerBytes = Arrays.copyOfRange(bytes, starts[0], ends[0]);
+                customerName = decode(bytes, starts[0], ends[0], escaped[0]);
+                rentals = new ArrayList<>();
+            }
+            rentals.add(new Rental(movie, days));
+            rows++;
+        }
+
+        void finish() {
+            if (rentals != null)
+                customers.accept(new Customer(customerName, rentals));
+            rentals = null;
+        }
+
+        private int field(byte[] bytes, int pos, int end, int field) throws IOException {
+            if (pos < end && bytes[pos] == '"') {
+                int from = ++pos;
+                boolean quotes = false;
+                while (true) {
+                    if (pos == end)
+                        throw malformed("unterminated quoted field");
+                    if (bytes[pos] == '"') {
+                        if (pos + 1 < end && bytes[pos + 1] == '"') {
+                            quotes = true;
+                            pos += 2;
+                            continue;
+                        }
+                        break;
+                    }
+                    pos++;
+                }
+                starts[field] = from;
+                ends[field] = pos;
+                escaped[field] = quotes;
+                return pos + 1;
+            }
+            int from = pos;
+            while (pos < end && bytes[pos] != delimiter)
+                pos++;
+            starts[field] = from;
+            ends[field] = pos;
+            escaped[field] = false;
+            return pos;
+        }
+
+        private Movie.MovieType type(byte[] bytes, int from, int to) throws IOException {
+            for (int i = 0; i < TYPE_NAMES.length; i++) {
+                if (Arrays.equals(TYPE_NAMES[i], 0, TYPE_NAMES[i].length, bytes, from, to))
+                    return TYPES[i];
+            }
+            throw malformed("unknown movie type " + decode(bytes, from, to, false));
+        }
+
+        private int days(byte[] bytes, int from, int to) throws IOException {
+            if (from == to || to - from > 9)
+                throw malformed("bad days rented " + decode(bytes, from, to, false));
+            int days = 0;
+            for (int i = from; i < to; i++) {
+                int digit = bytes[i] - '0';
+                if (digit < 0 || digit > 9)
+                    throw malformed("bad days rented " + decode(bytes, from, to, false));
+                days = days * 10 + digit;
+            }
+            return days;
+        }
+
+        /**
+         * Resolves a title through a small direct-mapped cache of raw title bytes in front
+         * of the shared catalog, so repeated titles are neither decoded nor hashed as strings.
+         */
+        private Movie movie(byte[] bytes, int from, int to, boolean quotes, Movie.MovieType type) throws IOException {
+            int hash = 0;
+            for (int i = from; i < to; i++)
+                hash = 31 * hash + bytes[i];
+            int slot = (hash ^ (hash >>> 16)) & (TITLE_CACHE_SIZE - 1);
+            byte[] cached = cachedTitles[slot];
+            if (cached != null && cachedMovies[slot].getPriceCode() == type
+                    && Arrays.equals(cached, 0, cached.length, bytes, from, to))
+                return cachedMovies[slot];
+            String title = decode(bytes, from, to, quotes);
+            Movie movie;
+            try {
+                movie = catalog.movie(catalog.register(title, type));
+            } catch (IllegalArgumentException e) {
+                throw malformed(e.getMessage());
+            }
+            cachedTitles[slot] = Arrays.copyOfRange(bytes, from, to);
+            cachedMovies[slot] = movie;
+            return movie;
+        }
+
+        private IOException malformed(String reason) {
+            return new IOException("Line " + lineNumber + ": " + reason);
+        }
+    }
+
+    private static String decode(byte[] bytes, int from, int to, boolean quotes) {
+        String text = new String(bytes, from, to - from, StandardCharsets.UTF_8);
+        return quotes ? text.replace("\"\"", "\"") : text;
+    }
+}
@@ -0,0 +1,132 @@
+package example;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Columnar rental storage: one primitive array per field instead of a {@link Rental}
+ * and a {@link Movie} object per rental. Titles are kept once in a deduplicated table
+ * and referenced by index, so a rental costs nine bytes of array space.
+ */
+class RentalLedger implements RentalSource {
+    private static final Movie.MovieType[] TYPES = Movie.MovieType.values();
+    private static final int INITIAL_CAPACITY = 16;
+
+    private int[] daysRented;
+    private byte[] types;
+    private int[] titleIndex;
+    private int size;
+
+    private String[] titles = new String[INITIAL_CAPACITY];
+    private int titleCount;
+    private final Map<String, Integer> titleIds = new HashMap<>();
+
+    public RentalLedger() {
+        this(INITIAL_CAPACITY);
+    }
+
+    public RentalLedger(int capacity) {
+        int initial = Math.max(capacity, 1);
+        daysRented = new int[initial];
+        types = new byte[initial];
+        titleIndex = new int[initial];
+    }
+
+    public static RentalLedger of(List<Rental> rentals) {
+        RentalLedger ledger = new RentalLedger(rentals.size());
+        for (Rental each : rentals)
+            ledger.add(each);
+        return ledger;
+    }
+
+    public void add(Rental rental) {
+        add(rental.getMovie().getTitle(), rental.getMovie().getPriceCode(), rental.getDaysRented());
+    }
+
+    public void add(String title, Movie.MovieType type, int days) {
+        if (size == daysRented.length) {
+            int capacity = size * 2;
+            daysRented = Arrays.copyOf(daysRented, capacity);
+            types = Arrays.copyOf(types, capacity);
+            titleIndex = Arrays.copyOf(titleIndex, capacity);
+        }
+        daysRented[size] = days;
+        types[size] = (byte) type.ordinal();
+        titleIndex[size] = titleId(title);
+        size++;
+    }
+
+    private int titleId(String title) {
+        Integer id = titleIds.get(title);
+        if (id != null)
+            return id;
+        if (titleCount == titles.length)
+            titles = Arrays.copyOf(titles, titleCount * 2);
+        titles[titleCount] = title;
+        titleIds.put(title, titleCount);
+        return titleCount++;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public String title(int index) {
+        return titles[titleIndex[Objects.checkIndex(index, size)]];
+    }
+
+    @Override
+    public Movie.MovieType type(int index) {
+        return TYPES[types[Objects.checkIndex(index, size)]];
+    }
+
+    @Override
+    public int daysRented(int index) {
+        return daysRented[Objects.checkIndex(index, size)];
+    }
+
+    /**
+     * Backing array of type ordinals; only the first {@link #size()} entries are valid.
+     */
+    byte[] typeColumn() {
+        return types;
+    }
+
+    /**
+     * Backing array of rental days; only the first {@link #size()} entries are valid.
+     */
+    int[] daysColumn() {
+        return daysRented;
+    }
+
+    public int distinctTitles() {
+        return titleCount;
+    }
+
+    public long totalAmountCents() {
+        return totalAmountCents(PriceTable.STANDARD);
+    }
+
+    public long totalAmountCents(PriceTable prices) {
+        long total = 0;
+        for (int i = 0; i < size; i++)
+            total += prices.chargeCents(types[i], daysRented[i]);
+        return total;
+    }
+
+    public int frequentRenterPoints() {
+        return frequentRenterPoints(PriceTable.STANDARD);
+    }
+
+    public int frequentRenterPoints(PriceTable prices) {
+        int points = 0;
+        for (int i = 0; i < size; i++)
+            points += prices.frequentRenterPoints(types[i], daysRented[i]);
+        return points;
+    }
+}
@@ -0,0 +1,143 @@
+package example;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+
+import static example.RentalLogWriter.HEADER_SIZE;
+import static example.RentalLogWriter.RECORD_SIZE;
+import static java.nio.file.StandardOpenOption.READ;
+
+/**
+ * Memory-maps a log written by {@link RentalLogWriter} and bills it straight from the
+ * mapped pages, without creating {@link Rental} or {@link Movie} objects.
+ * <p>
+ * A single mapping is limited to 2 GB, so the file is mapped as a series of segments
+ * holding a power-of-two number of records each; files of any size can be read.
+ */
+class RentalLogReader implements Closeable {
+    /**
+     * 2^26 records of 16 bytes: 1 GB per mapped segment.
+     */
+    static final int DEFAULT_SEGMENT_SHIFT = 26;
+
+    private static final Movie.MovieType[] TYPES = Movie.MovieType.values();
+
+    /**
+     * Receives the totals of one customer's consecutive records.
+     */
+    @FunctionalInterface
+    interface TotalsConsumer {
+        void accept(int customerId, long rentals, long amountCents, long frequentRenterPoints);
+    }
+
+    private final FileChannel channel;
+    private final ByteBuffer[] segments;
+    private final int segmentShift;
+    private final long segmentMask;
+    private final long records;
+
+    public RentalLogReader(Path file) throws IOException {
+        this(file, DEFAULT_SEGMENT_SHIFT);
+    }
+
+    RentalLogReader(Path file, int segmentShift) throws IOException {
+        channel = FileChannel.open(file, READ);
+        try {
+            long size = channel.size();
+            if (size < HEADER_SIZE || (size - HEADER_SIZE) % RECORD_SIZE != 0)
+                throw new IOException("Not a rental log (size " + size + "): " + file);
+            this.segmentShift = segmentShift;
+            this.segmentMask = (1L << segmentShift) - 1;
+            this.records = (size - HEADER_SIZE) / RECORD_SIZE;
+
+            ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            if (header.getInt(0) != RentalLogWriter.MAGIC || header.getInt(4) != RentalLogWriter.VERSION)
+                throw new IOException("Not a rental log (bad header): " + file);
+
+            long recordsPerSegment = 1L << segmentShift;
+            segments = new ByteBuffer[(int) ((records + recordsPerSegment - 1) >>> segmentShift)];
+            for (int i = 0; i < segments.length; i++) {
+                long first = (long) i << segmentShift;
+                long count = Math.min(recordsPerSegment, records - first);
+                MappedByteBuffer segment = channel.map(FileChannel.MapMode.READ_ONLY,
+                        HEADER_SIZE + first * RECORD_SIZE, count * RECORD_SIZE);
+                segments[i] = segment.order(ByteOrder.LITTLE_ENDIAN);
+            }
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    public long getRecords() {
+        return records;
+    }
+
+    public int customerId(long index) {
+        return segment(index).getInt(offset(index));
+    }
+
+    public int titleId(long index) {
+        return segment(index).getInt(offset(index) + 4);
+    }
+
+    public int daysRented(long index) {
+        return segment(index).getInt(offset(index) + 8);
+    }
+
+    public Movie.MovieType type(long index) {
+        return TYPES[segment(index).get(offset(index) + 12)];
+    }
+
+    private ByteBuffer segment(long index) {
+        if (index < 0 || index >= records)
+            throw new IndexOutOfBoundsException("Record " + index + " out of bounds for " + records);
+        return segments[(int) (index >>> segmentShift)];
+    }
+
+    private int offset(long index) {
+        return (int) (index & segmentMask) * RECORD_SIZE;
+    }
+
+    /**
+     * Totals every run of consecutive records with the same customer id.
+     */
+    public void bill(PriceTable prices, TotalsConsumer consumer) {
+        boolean open = false;
+        int customerId = 0;
+        long rentals = 0;
+        long amountCents = 0;
+        long points = 0;
+        for (ByteBuffer segment : segments) {
+            for (int offset = 0, limit = segment.limit(); offset < limit; offset += RECORD_SIZE) {
+                int id = segment.getInt(offset);
+                if (!open || id != customerId) {
+                    if (open)
+                        consumer.accept(customerId, rentals, amountCents, points);
+                    open = true;
+                    customerId = id;
+                    rentals = 0;
+                    amountCents = 0;
+                    points = 0;
+                }
+                int days = segment.getInt(offset + 8);
+                int type = segment.get(offset + 12);
+                rentals++;
+                amountCents += prices.chargeCents(type, days);
+                points += prices.frequentRenterPoints(type, days);
+            }
+        }
+        if (open)
+            consumer.accept(customerId, rentals, amountCents, points);
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
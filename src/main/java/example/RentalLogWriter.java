@@ -0,0 +1,67 @@
+package example;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.TRUNCATE_EXISTING;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+/**
+ * Writes the binary rental log read by {@link RentalLogReader}: an 8-byte header
+ * ({@link #MAGIC}, {@link #VERSION}) followed by fixed-width 16-byte little-endian records
+ * <pre>
+ *   int customerId | int titleId | int daysRented | byte movie type ordinal | 3 bytes padding
+ * </pre>
+ * Records of one customer are expected to be written together.
+ */
+class RentalLogWriter implements Closeable {
+    static final int MAGIC = 0x524C4F47; // "RLOG"
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 8;
+    static final int RECORD_SIZE = 16;
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(RECORD_SIZE * 4096).order(ByteOrder.LITTLE_ENDIAN);
+    private long records;
+
+    public RentalLogWriter(Path file) throws IOException {
+        channel = FileChannel.open(file, CREATE, TRUNCATE_EXISTING, WRITE);
+        buffer.putInt(MAGIC).putInt(VERSION);
+    }
+
+    public void write(int customerId, int titleId, Movie.MovieType type, int daysRented) throws IOException {
+        if (buffer.remaining() < RECORD_SIZE)
+            flush();
+        buffer.putInt(customerId)
+                .putInt(titleId)
+                .putInt(daysRented)
+                .put((byte) type.ordinal())
+                .put((byte) 0).put((byte) 0).put((byte) 0);
+        records++;
+    }
+
+    public long getRecords() {
+        return records;
+    }
+
+    private void flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining())
+            channel.write(buffer);
+        buffer.clear();
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            flush();
+        } finally {
+            channel.close();
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package example;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * Index-addressed, read-only view of the rentals a statement is built from.
+ * Lets {@link Customer} bill rentals that are not stored as {@link Rental} objects.
+ */
+interface RentalSource {
+
+    int size();
+
+    String title(int index);
+
+    Movie.MovieType type(int index);
+
+    int daysRented(int index);
+
+    static RentalSource of(List<Rental> rentals) {
+        List<Rental> list = rentals instanceof RandomAccess ? rentals : new ArrayList<>(rentals);
+        return new RentalSource() {
+            @Override
+            public int size() {
+                return list.size();
+            }
+
+            @Override
+            public String title(int index) {
+                return list.get(index).getMovie().getTitle();
+            }
+
+            @Override
+            public Movie.MovieType type(int index) {
+                return list.get(index).getMovie().getPriceCode();
+            }
+
+            @Override
+            public int daysRented(int index) {
+                return list.get(index).getDaysRented();
+            }
+        };
+    }
+}
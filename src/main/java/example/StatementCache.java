@@ -0,0 +1,219 @@
+package example;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded cache of rendered statements, keyed by customer name and
+ * {@link Customer#fingerprint() rental fingerprint}.
+ * <p>
+ * The cache is split into independently locked segments, each evicting its least recently
+ * used entries once it holds more than its share of the entry or byte budget. A cached
+ * statement is only served to a customer priced with the same {@link PriceTable} it was
+ * rendered with, so replacing rates (e.g. through {@link PricingRegistry}) invalidates
+ * affected entries on their next lookup; {@link #invalidateAll()} drops everything at once.
+ */
+class StatementCache {
+    private static final int ENTRY_OVERHEAD_BYTES = 96;
+
+    private final Segment[] segments;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public StatementCache(int maxEntries, long maxBytes) {
+        this(maxEntries, maxBytes, 16);
+    }
+
+    public StatementCache(int maxEntries, long maxBytes, int segmentCount) {
+        if (Integer.bitCount(segmentCount) != 1)
+            throw new IllegalArgumentException("segmentCount must be a power of two: " + segmentCount);
+        if (maxEntries < segmentCount || maxBytes < segmentCount)
+            throw new IllegalArgumentException("Budget too small for " + segmentCount + " segments");
+        segments = new Segment[segmentCount];
+        for (int i = 0; i < segmentCount; i++)
+            segments[i] = new Segment(maxEntries / segmentCount, maxBytes / segmentCount);
+    }
+
+    /**
+     * Returns the customer's statement, rendering and caching it on a miss.
+     */
+    public String statement(Customer customer) {
+        Key key = new Key(customer.getName(), customer.fingerprint());
+        Segment segment = segmentFor(key);
+        String cached = segment.get(key, customer.prices());
+        if (cached != null) {
+            hits.increment();
+            return cached;
+        }
+        misses.increment();
+        String statement = customer.statement();
+        evictions.add(segment.put(key, new Entry(statement, customer.prices())));
+        return statement;
+    }
+
+    public void invalidate(Customer customer) {
+        Key key = new Key(customer.getName(), customer.fingerprint());
+        segmentFor(key).remove(key);
+    }
+
+    public void invalidateAll() {
+        for (Segment segment : segments)
+            segment.clear();
+    }
+
+    private Segment segmentFor(Key key) {
+        int hash = key.hashCode();
+        return segments[(hash ^ (hash >>> 16)) & (segments.length - 1)];
+    }
+
+    public Stats stats() {
+        long entries = 0;
+        long bytes = 0;
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                entries += segment.entries.size();
+                bytes += segment.bytes;
+            }
+        }
+        return new Stats(hits.sum(), misses.sum(), evictions.sum(), entries, bytes);
+    }
+
+    static long sizeOf(String statement) {
+        return ENTRY_OVERHEAD_BYTES + 2L * statement.length();
+    }
+
+    private static final class Key {
+        final String name;
+        final long fingerprint;
+
+        Key(String name, long fingerprint) {
+            this.name = name;
+            this.fingerprint = fingerprint;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Key other && fingerprint == other.fingerprint && name.equals(other.name);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hashCode(name) * 31 + Long.hashCode(fingerprint);
+        }
+    }
+
+    private static final class Entry {
+        final String statement;
+        final PriceTable prices;
+
+        Entry(String statement, PriceTable prices) {
+            this.statement = statement;
+            this.prices = prices;
+        }
+    }
+
+    private static final class Segment {
+        private final int maxEntries;
+        private final long maxBytes;
+        private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+        private long bytes;
+
+        Segment(int maxEntries, long maxBytes) {
+            this.maxEntries = maxEntries;
+            this.maxBytes = maxBytes;
+        }
+
+        synchronized String get(Key key, PriceTable prices) {
+            Entry entry = entries.get(key);
+            if (entry == null)
+                return null;
+            if (entry.prices != prices) {
+                entries.remove(key);
+                bytes -= sizeOf(entry.statement);
+                return null;
+            }
+            return entry.statement;
+        }
+
+        /**
+         * @return the number of entries evicted to make room
+         */
+        synchronized int put(Key key, Entry entry) {
+            Entry previous = entries.put(key, entry);
+            if (previous != null)
+                bytes -= sizeOf(previous.statement);
+            bytes += sizeOf(entry.statement);
+            int evicted = 0;
+            Iterator<Map.Entry<Key, Entry>> eldest = entries.entrySet().iterator();
+            while ((entries.size() > maxEntries || bytes > maxBytes) && eldest.hasNext()) {
+                Map.Entry<Key, Entry> victim = eldest.next();
+                eldest.remove();
+                bytes -= sizeOf(victim.getValue().statement);
+                evicted++;
+            }
+            return evicted;
+        }
+
+        synchronized void remove(Key key) {
+            Entry removed = entries.remove(key);
+            if (removed != null)
+                bytes -= sizeOf(removed.statement);
+        }
+
+        synchronized void clear() {
+            entries.clear();
+            bytes = 0;
+        }
+    }
+
+    static final class Stats {
+        private final long hits;
+        private final long misses;
+        private final long evictions;
+        private final long entries;
+        private final long bytes;
+
+        Stats(long hits, long misses, long evictions, long entries, long bytes) {
+            this.hits = hits;
+            this.misses = misses;
+            this.evictions = evictions;
+            this.entries = entries;
+            this.bytes = bytes;
+        }
+
+        public long getHits() {
+            return hits;
+        }
+
+        public long getMisses() {
+            return misses;
+        }
+
+        public long getEvictions() {
+            return evictions;
+        }
+
+        public long getEntries() {
+            return entries;
+        }
+
+        public long getBytes() {
+            return bytes;
+        }
+
+        public double hitRatio() {
+            long lookups = hits + misses;
+            return lookups == 0 ? 0 : (double) hits / lookups;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d hits, %d misses (%.1f%% hit ratio), %d evictions, %d entries, %d bytes",
+                    hits, misses, hitRatio() * 100, evictions, entries, bytes);
+        }
+    }
+}
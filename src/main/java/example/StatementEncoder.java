@@ -0,0 +1,48 @@
+package example;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * Writes a customer's statement as bytes, for consumers that would otherwise re-parse the
+ * text of {@link Customer#statement()}.
+ * <p>
+ * {@link #TEXT} is that same text, UTF-8 encoded; {@link #JSON} and {@link #BINARY} carry
+ * the same figures in machine-readable form, with amounts as exact integer cents.
+ */
+@FunctionalInterface
+interface StatementEncoder {
+    StatementEncoder TEXT = (customer, out) -> customer.statement(out);
+    StatementEncoder JSON = new JsonStatementEncoder();
+    StatementEncoder BINARY = new BinaryStatementEncoder();
+
+    void encode(Customer customer, StatementOutput out) throws IOException;
+
+    /**
+     * Encodes into {@code buffer} from its position on.
+     *
+     * @throws java.nio.BufferOverflowException if the statement does not fit; the buffer's
+     *                                          position is then unspecified
+     */
+    default void encode(Customer customer, ByteBuffer buffer) {
+        StatementOutput out = StatementOutput.of(buffer);
+        try {
+            encode(customer, out);
+            out.flush();
+        } catch (IOException e) {
+            // nothing to write to without a channel
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Streams the statement to {@code channel}, using {@code buffer} as scratch space.
+     */
+    default void encode(Customer customer, WritableByteChannel channel, ByteBuffer buffer) throws IOException {
+        StatementOutput out = StatementOutput.of(channel, buffer);
+        encode(customer, out);
+        out.flush();
+    }
+}
@@ -0,0 +1,40 @@
+package example;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * JFR event committed for every statement rendered while {@link BillingMetrics} are enabled.
+ */
+@Name("example.Statement")
+@Label("Statement")
+@Category("Billing")
+@Description("Rendering of one customer statement")
+class StatementEvent extends jdk.jfr.Event {
+    private static final EventType TYPE = EventType.getEventType(StatementEvent.class);
+
+    @Label("Customer")
+    String customer;
+
+    @Label("Rentals")
+    long rentals;
+
+    @Label("Amount (cents)")
+    long amountCents;
+
+    @Label("Frequent Renter Points")
+    long frequentRenterPoints;
+
+    @Label("Characters")
+    long characters;
+
+    /**
+     * Whether a recording wants this event, checked before allocating one.
+     */
+    static boolean enabled() {
+        return TYPE.isEnabled();
+    }
+}
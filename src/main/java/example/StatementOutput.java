@@ -0,0 +1,227 @@
+package example;
+
+import java.io.IOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * Byte target of a {@link StatementEncoder}: characters are UTF-8 encoded straight into a
+ * {@link ByteBuffer}, without intermediate Strings or byte arrays.
+ * <p>
+ * With a channel, a full buffer is written out and reused, so statements of any size
+ * stream through a fixed amount of memory; call {@link #flush()} at the end. Without one,
+ * running out of room throws {@link BufferOverflowException} as {@code ByteBuffer} does.
+ */
+final class StatementOutput implements Appendable {
+    private final ByteBuffer buffer;
+    private final WritableByteChannel channel;
+    private char highSurrogate;
+
+    private StatementOutput(ByteBuffer buffer, WritableByteChannel channel) {
+        this.buffer = buffer;
+        this.channel = channel;
+    }
+
+    public static StatementOutput of(ByteBuffer buffer) {
+        return new StatementOutput(buffer, null);
+    }
+
+    /**
+     * @param buffer scratch buffer, at least 16 bytes; its contents are overwritten
+     */
+    public static StatementOutput of(WritableByteChannel channel, ByteBuffer buffer) {
+        if (buffer.capacity() < 16)
+            throw new IllegalArgumentException("Buffer too small: " + buffer.capacity());
+        buffer.clear();
+        return new StatementOutput(buffer, channel);
+    }
+
+    @Override
+    public StatementOutput append(CharSequence csq) throws IOException {
+        return append(csq, 0, csq.length());
+    }
+
+    @Override
+    public StatementOutput append(CharSequence csq, int start, int end) throws IOException {
+        int i = start;
+        while (i < end) {
+            // bound-check once per run: no char takes more than 3 bytes (pairs take 4 for 2)
+            int run = Math.min(end - i, buffer.remaining() / 3);
+            if (run == 0 || highSurrogate != 0) {
+                append(csq.charAt(i++));
+                continue;
+            }
+            for (int stop = i + run; i < stop; i++) {
+                char c = csq.charAt(i);
+                if (c < 0x80 && highSurrogate == 0)
+                    buffer.put((byte) c);
+                else
+                    append(c);
+            }
+        }
+        return this;
+    }
+
+    @Override
+    public StatementOutput append(char c) throws IOException {
+        if (highSurrogate != 0) {
+            char high = highSurrogate;
+            highSurrogate = 0;
+            if (Character.isLowSurrogate(c)) {
+                putCodePoint(Character.toCodePoint(high, c));
+                return this;
+            }
+            putCodePoint('?');
+        }
+        if (Character.isHighSurrogate(c))
+            highSurrogate = c;
+        else
+            putCodePoint(Character.isLowSurrogate(c) ? '?' : c);
+        return this;
+    }
+
+    private void putCodePoint(int codePoint) throws IOException {
+        if (codePoint < 0x80) {
+            require(1);
+            buffer.put((byte) codePoint);
+        } else if (codePoint < 0x800) {
+            require(2);
+            buffer.put((byte) (0xC0 | codePoint >> 6));
+            buffer.put((byte) (0x80 | codePoint & 0x3F));
+        } else if (codePoint < 0x10000) {
+            require(3);
+            buffer.put((byte) (0xE0 | codePoint >> 12));
+            buffer.put((byte) (0x80 | codePoint >> 6 & 0x3F));
+            buffer.put((byte) (0x80 | codePoint & 0x3F));
+        } else {
+            require(4);
+            buffer.put((byte) (0xF0 | codePoint >> 18));
+            buffer.put((byte) (0x80 | codePoint >> 12 & 0x3F));
+            buffer.put((byte) (0x80 | codePoint >> 6 & 0x3F));
+            buffer.put((byte) (0x80 | codePoint & 0x3F));
+        }
+    }
+
+    /**
+     * Copies pre-encoded bytes, such as constant fragments of a format, in bulk.
+     */
+    public StatementOutput put(byte[] bytes) throws IOException {
+        endSurrogate();
+        int offset = 0;
+        while (offset < bytes.length) {
+            if (!buffer.hasRemaining())
+                require(1);
+            int length = Math.min(bytes.length - offset, buffer.remaining());
+            buffer.put(bytes, offset, length);
+            offset += length;
+        }
+        return this;
+    }
+
+    public StatementOutput putByte(int b) throws IOException {
+        endSurrogate();
+        require(1);
+        buffer.put((byte) b);
+        return this;
+    }
+
+    /**
+     * Writes the decimal digits of {@code value}, as {@link Long#toString(long)} would.
+     */
+    public StatementOutput putDecimal(long value) throws IOException {
+        if (value == Long.MIN_VALUE)
+            return append(Long.toString(value));
+        endSurrogate();
+        require(20);
+        if (value < 0) {
+            buffer.put((byte) '-');
+            value = -value;
+        }
+        long divisor = 1;
+        while (divisor <= value / 10)
+            divisor *= 10;
+        for (; divisor > 0; divisor /= 10)
+            buffer.put((byte) ('0' + value / divisor % 10));
+        return this;
+    }
+
+    /**
+     * Writes {@code value} as an unsigned LEB128 varint: 7 bits per byte, low bits first.
+     */
+    public StatementOutput putVarLong(long value) throws IOException {
+        endSurrogate();
+        require(10);
+        while ((value & ~0x7FL) != 0) {
+            buffer.put((byte) (value & 0x7F | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+        return this;
+    }
+
+    /**
+     * Writes the UTF-8 byte length of {@code text} as a varint, then its bytes.
+     */
+    public StatementOutput putString(String text) throws IOException {
+        putVarLong(utf8Length(text));
+        append(text);
+        endSurrogate();
+        return this;
+    }
+
+    static int utf8Length(String text) {
+        int length = text.length();
+        for (int i = 0, n = text.length(); i < n; i++) {
+            char c = text.charAt(i);
+            if (Character.isSurrogate(c)) {
+                // a pair is 4 bytes for 2 chars; a lone surrogate becomes '?'
+                if (Character.isHighSurrogate(c) && i + 1 < n && Character.isLowSurrogate(text.charAt(i + 1))) {
+                    length += 2;
+                    i++;
+                }
+            } else if (c >= 0x800) {
+                length += 2;
+            } else if (c >= 0x80) {
+                length++;
+            }
+        }
+        return length;
+    }
+
+    /**
+     * Ends a dangling high surrogate with {@code '?'}, as {@link #append(char)} does when no
+     * low surrogate follows, so raw writes never land between it and its replacement.
+     */
+    private void endSurrogate() throws IOException {
+        if (highSurrogate != 0) {
+            highSurrogate = 0;
+            putCodePoint('?');
+        }
+    }
+
+    private void require(int bytes) throws IOException {
+        if (buffer.remaining() < bytes) {
+            if (channel == null)
+                throw new BufferOverflowException();
+            drain();
+        }
+    }
+
+    private void drain() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining())
+            channel.write(buffer);
+        buffer.clear();
+    }
+
+    /**
+     * Writes any buffered bytes to the channel (a no-op without one), ending a dangling
+     * high surrogate with {@code '?'}.
+     */
+    public void flush() throws IOException {
+        endSurrogate();
+        if (channel != null)
+            drain();
+    }
+}
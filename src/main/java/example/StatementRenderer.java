@@ -0,0 +1,88 @@
+package example;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Renders statements into reused scratch buffers, so the only garbage per statement is
+ * the returned String.
+ * <p>
+ * {@link #perThread()} keeps one buffer per thread and suits a fixed set of worker
+ * threads. {@link #pooled(int)} shares a bounded pool of buffers instead, which keeps
+ * memory bounded when statements are rendered from many short-lived threads.
+ * Buffers that grew beyond {@link #MAX_RETAINED_CAPACITY} are not kept.
+ */
+abstract class StatementRenderer {
+    static final int MAX_RETAINED_CAPACITY = 1 << 20;
+    private static final int INITIAL_CAPACITY = 1024;
+
+    public static StatementRenderer perThread() {
+        return new PerThread();
+    }
+
+    public static StatementRenderer pooled(int maxPooledBuffers) {
+        return new Pooled(maxPooledBuffers);
+    }
+
+    public String render(Customer customer) {
+        StringBuilder buffer = acquire();
+        try {
+            customer.statement(buffer);
+            return buffer.toString();
+        } finally {
+            buffer.setLength(0);
+            if (buffer.capacity() <= MAX_RETAINED_CAPACITY)
+                release(buffer);
+            else
+                discard();
+        }
+    }
+
+    abstract StringBuilder acquire();
+
+    abstract void release(StringBuilder buffer);
+
+    abstract void discard();
+
+    private static final class PerThread extends StatementRenderer {
+        private final ThreadLocal<StringBuilder> buffers = ThreadLocal.withInitial(() -> new StringBuilder(INITIAL_CAPACITY));
+
+        @Override
+        StringBuilder acquire() {
+            return buffers.get();
+        }
+
+        @Override
+        void release(StringBuilder buffer) {
+            // stays with the thread
+        }
+
+        @Override
+        void discard() {
+            buffers.remove();
+        }
+    }
+
+    private static final class Pooled extends StatementRenderer {
+        private final BlockingQueue<StringBuilder> buffers;
+
+        Pooled(int maxPooledBuffers) {
+            buffers = new ArrayBlockingQueue<>(maxPooledBuffers);
+        }
+
+        @Override
+        StringBuilder acquire() {
+            StringBuilder buffer = buffers.poll();
+            return buffer != null ? buffer : new StringBuilder(INITIAL_CAPACITY);
+        }
+
+        @Override
+        void release(StringBuilder buffer) {
+            buffers.offer(buffer);
+        }
+
+        @Override
+        void discard() {
+        }
+    }
+}
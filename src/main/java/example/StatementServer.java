@@ -0,0 +1,244 @@
+package example;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.function.IntFunction;
+
+/**
+ * Serves statements over HTTP with the JDK's built-in server.
+ * <ul>
+ * <li>{@code GET /statements/12} returns the statement of customer 12, and
+ *     {@code GET /statements/12,40,7} those of several customers in one response.</li>
+ * <li>{@code POST /statements} with rows {@code customer,title,type,days} (no header
+ *     line; tab-separated if the content type is {@code text/tab-separated-values})
+ *     returns the statement of every customer in the body, as each is parsed. A
+ *     malformed row is a 400 if no statement was sent yet; after that the connection
+ *     is closed without ending the chunked body, so clients see a failed read. Titles
+ *     are resolved in a catalog of the request's own, so clients can neither grow shared
+ *     state nor pin a title to a type for other requests.</li>
+ * </ul>
+ * {@code ?format=json} or {@code ?format=binary} selects another {@link StatementEncoder};
+ * text statements in one response are separated by a blank line, JSON ones form an array.
+ * Responses are streamed with chunked encoding straight from per-thread buffers.
+ * <p>
+ * Requests are handled on the given executor, which should allow many blocked threads:
+ * on Java 21 and later, {@code Executors.newVirtualThreadPerTaskExecutor()}; before that,
+ * a fixed pool sized for the expected concurrency.
+ * <p>
+ * The JDK server sends headers and each body chunk as separate small writes, so with
+ * Nagle's algorithm on every response waits for the client's delayed ACK (about 40 ms).
+ * Run with {@code -Dsun.net.httpserver.nodelay=true}; the property is read once, when the
+ * first server is created.
+ */
+class StatementServer implements Closeable {
+    static final String PATH = "/statements";
+    private static final int BUFFER_SIZE = 16 * 1024;
+    private static final byte[] TEXT_SEPARATOR = "\n\n".getBytes(StandardCharsets.US_ASCII);
+
+    private final HttpServer server;
+    private final IntFunction<Customer> customers;
+    private final ThreadLocal<ByteBuffer> buffers = ThreadLocal.withInitial(() -> ByteBuffer.allocate(BUFFER_SIZE));
+
+    /**
+     * @param customers looks up customers by id, returning {@code null} for unknown ids
+     */
+    public StatementServer(InetSocketAddress address, IntFunction<Customer> customers, Executor executor)
+            throws IOException {
+        this.customers = customers;
+        server = HttpServer.create(address, 0);
+        server.setExecutor(executor);
+        server.createContext(PATH, this::handle);
+    }
+
+    public void start() {
+        server.start();
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+
+    /**
+     * Closes the exchange, which ends a chunked response cleanly, only when the handler
+     * completed. When it throws, the JDK server drops the connection instead, so a client
+     * whose response had already started sees it cut short rather than a valid body.
+     */
+    private void handle(HttpExchange exchange) throws IOException {
+        dispatch(exchange);
+        exchange.close();
+    }
+
+    private void dispatch(HttpExchange exchange) throws IOException {
+        Format format = Format.of(exchange.getRequestURI().getRawQuery());
+        if (format == null) {
+            error(exchange, 400, "Unknown format");
+            return;
+        }
+        String method = exchange.getRequestMethod();
+        String path = exchange.getRequestURI().getPath();
+        if (method.equals("GET") && path.startsWith(PATH + "/"))
+            get(exchange, path.substring(PATH.length() + 1), format);
+        else if (method.equals("POST") && path.equals(PATH))
+            post(exchange, format);
+        else
+            error(exchange, 404, "Not found");
+    }
+
+    private void get(HttpExchange exchange, String ids, Format format) throws IOException {
+        List<Customer> batch = new ArrayList<>();
+        for (String id : ids.split(",")) {
+            Customer customer;
+            try {
+                customer = customers.apply(Integer.parseInt(id));
+            } catch (NumberFormatException | IndexOutOfBoundsException e) {
+                customer = null;
+            }
+            if (customer == null) {
+                error(exchange, 404, "Unknown customer " + id);
+                return;
+            }
+            batch.add(customer);
+        }
+        Response response = new Response(exchange, format);
+        for (Customer customer : batch)
+            response.write(customer);
+        response.finish();
+    }
+
+    private void post(HttpExchange exchange, Format format) throws IOException {
+        String contentType = exchange.getRequestHeaders().getFirst("Content-Type");
+        char delimiter = contentType != null && contentType.startsWith("text/tab-separated-values") ? '\t' : ',';
+        Response response = new Response(exchange, format);
+        try {
+            new RentalImporter(new MovieCatalog(), delimiter, false).parse(Channels.newChannel(exchange.getRequestBody()), customer -> {
+                try {
+                    response.write(customer);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        } catch (IOException e) {
+            if (response.started) {
+                // too late for a 400: send what was rendered, then abort the connection
+                response.flushQuietly();
+                throw e;
+            }
+            error(exchange, 400, e.getMessage());
+            return;
+        }
+        response.finish();
+    }
+
+    private static void error(HttpExchange exchange, int status, String message) throws IOException {
+        byte[] body = (message + "\n").getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+        exchange.sendResponseHeaders(status, body.length);
+        exchange.getResponseBody().write(body);
+    }
+
+    private enum Format {
+        TEXT(StatementEncoder.TEXT, "text/plain; charset=utf-8"),
+        JSON(StatementEncoder.JSON, "application/json"),
+        BINARY(StatementEncoder.BINARY, "application/octet-stream");
+
+        final StatementEncoder encoder;
+        final String contentType;
+
+        Format(StatementEncoder encoder, String contentType) {
+            this.encoder = encoder;
+            this.contentType = contentType;
+        }
+
+        static Format of(String query) {
+            if (query == null)
+                return TEXT;
+            for (String parameter : query.split("&")) {
+                if (parameter.startsWith("format=")) {
+                    for (Format format : values()) {
+                        if (format.name().equalsIgnoreCase(parameter.substring(7)))
+                            return format;
+                    }
+                    return null;
+                }
+            }
+            return TEXT;
+        }
+    }
+
+    /**
+     * Sends headers with the first statement, so errors found before it can still
+     * become a proper status code.
+     */
+    private final class Response {
+        private final HttpExchange exchange;
+        private final Format format;
+        private WritableByteChannel channel;
+        private StatementOutput out;
+        boolean started;
+
+        Response(HttpExchange exchange, Format format) {
+            this.exchange = exchange;
+            this.format = format;
+        }
+
+        void write(Customer customer) throws IOException {
+            if (!started) {
+                start();
+                if (format == Format.JSON)
+                    out.append('[');
+            } else if (format == Format.TEXT) {
+                out.put(TEXT_SEPARATOR);
+            } else if (format == Format.JSON) {
+                out.append(',');
+            }
+            format.encoder.encode(customer, out);
+        }
+
+        private void start() throws IOException {
+            started = true;
+            exchange.getResponseHeaders().set("Content-Type", format.contentType);
+            exchange.sendResponseHeaders(200, 0);
+            channel = Channels.newChannel(exchange.getResponseBody());
+            out = StatementOutput.of(channel, buffers.get());
+        }
+
+        void finish() throws IOException {
+            if (!started) {
+                start();
+                if (format == Format.JSON)
+                    out.append('[');
+            }
+            if (format == Format.JSON)
+                out.append(']');
+            out.flush();
+        }
+
+        void flushQuietly() {
+            try {
+                out.flush();
+                exchange.getResponseBody().flush();
+            } catch (IOException ignored) {
+                // the connection is being aborted anyway
+            }
+        }
+    }
+}
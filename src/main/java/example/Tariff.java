@@ -0,0 +1,71 @@
+package example;
+
+/**
+ * Charge and frequent renter point rates for one movie type: a base charge that covers
+ * the first {@code daysIncluded} days, a charge per extra day, and one bonus point once a
+ * rental runs longer than {@code bonusPointAfterDays}. Charges are in cents.
+ */
+final class Tariff implements PricingPolicy {
+    static final Tariff REGULAR = new Tariff(200, 2, 150, Integer.MAX_VALUE);
+    static final Tariff NEW_RELEASE = new Tariff(0, 0, 300, 1);
+    static final Tariff CHILDRENS = new Tariff(150, 3, 150, Integer.MAX_VALUE);
+
+    private final long baseCents;
+    private final int daysIncluded;
+    private final long extraDayCents;
+    private final int bonusPointAfterDays;
+
+    public Tariff(long baseCents, int daysIncluded, long extraDayCents, int bonusPointAfterDays) {
+        this.baseCents = baseCents;
+        this.daysIncluded = daysIncluded;
+        this.extraDayCents = extraDayCents;
+        this.bonusPointAfterDays = bonusPointAfterDays;
+    }
+
+    public static Tariff standard(Movie.MovieType type) {
+        return switch (type) {
+            case REGULAR -> REGULAR;
+            case NEW_RELEASE -> NEW_RELEASE;
+            case CHILDRENS -> CHILDRENS;
+        };
+    }
+
+    @Override
+    public long chargeCents(int daysRented) {
+        long charge = baseCents;
+        // with no included days every day is charged, even a negative count, as the per-day formula always did
+        if (daysIncluded == 0 || daysRented > daysIncluded)
+            charge += (daysRented - daysIncluded) * extraDayCents;
+        return charge;
+    }
+
+    @Override
+    public int frequentRenterPoints(int daysRented) {
+        return daysRented > bonusPointAfterDays ? 2 : 1;
+    }
+
+    /**
+     * Sum of {@link #chargeCents} over {@code days[0..count)}, without branches in the loop.
+     */
+    long totalChargeCents(int[] days, int count) {
+        long extraDays = 0;
+        if (daysIncluded == 0) {
+            for (int i = 0; i < count; i++)
+                extraDays += days[i];
+        } else {
+            for (int i = 0; i < count; i++)
+                extraDays += Math.max(0L, (long) days[i] - daysIncluded);
+        }
+        return count * baseCents + extraDays * extraDayCents;
+    }
+
+    /**
+     * Sum of {@link #frequentRenterPoints} over {@code days[0..count)}, without branches in the loop.
+     */
+    long totalFrequentRenterPoints(int[] days, int count) {
+        long bonus = 0;
+        for (int i = 0; i < count; i++)
+            bonus += ((long) bonusPointAfterDays - days[i]) >>> 63;
+        return count + bonus;
+    }
+}
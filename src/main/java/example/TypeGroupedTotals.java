@@ -0,0 +1,66 @@
+package example;
+
+/**
+ * Totals a customer's rentals one movie type at a time instead of in statement order.
+ * <p>
+ * The rentals are first partitioned into one {@code daysRented} array per type; each
+ * group is then summed by a tight loop with no per-rental branch on the type. Groups
+ * priced by a {@link Tariff} use its branch-free closed form (a shape C2 can
+ * auto-vectorize), other policies use the {@link PriceTable} lookup.
+ */
+final class TypeGroupedTotals {
+    private static final Movie.MovieType[] TYPES = Movie.MovieType.values();
+
+    private TypeGroupedTotals() {
+    }
+
+    public static BillingTotals of(Customer customer) {
+        return of(customer.rentals(), customer.prices());
+    }
+
+    public static BillingTotals of(RentalSource rentals, PriceTable prices) {
+        if (rentals instanceof RentalLedger ledger)
+            return of(ledger.typeColumn(), ledger.daysColumn(), ledger.size(), prices);
+        int n = rentals.size();
+        byte[] types = new byte[n];
+        int[] days = new int[n];
+        for (int i = 0; i < n; i++) {
+            types[i] = (byte) rentals.type(i).ordinal();
+            days[i] = rentals.daysRented(i);
+        }
+        return of(types, days, n, prices);
+    }
+
+    /**
+     * Totals the first {@code n} entries of parallel type-ordinal and days columns.
+     */
+    static BillingTotals of(byte[] types, int[] daysRented, int n, PriceTable prices) {
+        int[] counts = new int[TYPES.length];
+        for (int i = 0; i < n; i++)
+            counts[types[i]]++;
+        int[][] days = new int[TYPES.length][];
+        for (int type = 0; type < TYPES.length; type++)
+            days[type] = new int[counts[type]];
+        int[] filled = new int[TYPES.length];
+        for (int i = 0; i < n; i++) {
+            int type = types[i];
+            days[type][filled[type]++] = daysRented[i];
+        }
+
+        long amountCents = 0;
+        long points = 0;
+        for (int type = 0; type < TYPES.length; type++) {
+            int[] group = days[type];
+            if (prices.policy(type) instanceof Tariff tariff) {
+                amountCents += tariff.totalChargeCents(group, group.length);
+                points += tariff.totalFrequentRenterPoints(group, group.length);
+            } else {
+                for (int d : group) {
+                    amountCents += prices.chargeCents(type, d);
+                    points += prices.frequentRenterPoints(type, d);
+                }
+            }
+        }
+        return new BillingTotals(n, amountCents, points);
+    }
+}
@@ -0,0 +1,88 @@
+package example;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static example.Movie.MovieType.*;
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for the Account class.
+ */
+public class AccountTest {
+
+    private static final Customer JOHN = new Customer("John Doe", List.of(
+            new Rental(new Movie("Rembo", REGULAR), 1),
+            new Rental(new Movie("Lord of the Rings", NEW_RELEASE), 4),
+            new Rental(new Movie("Harry Potter", CHILDRENS), 5)));
+    private static final Customer JANE = new Customer("Jane Doe", List.of(
+            new Rental(new Movie("Rembo", REGULAR), 3)));
+
+    private static Customer member(int i) {
+        return new Customer("Member " + i, List.of(
+                new Rental(new Movie("Movie " + i % 50, Movie.MovieType.values()[i % 3]), i % 9),
+                new Rental(new Movie("Movie " + i % 7, NEW_RELEASE), 1 + i % 4)));
+    }
+
+    @Test
+    public void shouldSumMemberTotals() {
+        BillingTotals totals = new Account("Doe household", List.of(JOHN, JANE)).totals();
+
+        assertEquals(JOHN.totals().plus(JANE.totals()), totals);
+        assertEquals(4, totals.getRentals());
+        assertEquals(2200, totals.getAmountCents());
+        assertEquals(5, totals.getFrequentRenterPoints());
+    }
+
+    @Test
+    public void shouldMatchSequentialSumWhenReducedInParallel() {
+        BillingTotals sequential = BillingTotals.ZERO;
+        for (int i = 0; i < 100_000; i++)
+            sequential = sequential.plus(member(i).totals());
+
+        Account account = new Account("ACME", () -> IntStream.range(0, 100_000).mapToObj(AccountTest::member));
+
+        assertEquals(sequential, account.totals());
+    }
+
+    @Test
+    public void shouldStreamConsolidatedStatement() throws IOException {
+        StringWriter out = new StringWriter();
+
+        new Account("Doe household", List.of(JOHN, JANE)).statement(out);
+
+        assertEquals("Account Record for Doe household\n"
+                + "\tJohn Doe\t18.5\n"
+                + "\tJane Doe\t3.5\n"
+                + "Amount owed is 22.0\n"
+                + "You earned 5 frequent renter points", out.toString());
+        assertEquals(out.toString(), new Account("Doe household", List.of(JOHN, JANE)).statement());
+    }
+
+    @Test
+    public void shouldOpenMembersAfreshForEachOperation() {
+        AtomicInteger opened = new AtomicInteger();
+        Account account = new Account("ACME", () -> {
+            opened.incrementAndGet();
+            return IntStream.range(0, 10).mapToObj(AccountTest::member);
+        });
+
+        account.totals();
+        account.statement();
+
+        assertEquals(2, opened.get());
+    }
+
+    @Test
+    public void shouldStateEmptyAccount() {
+        Account account = new Account("Nobody", List.of());
+
+        assertEquals(BillingTotals.ZERO, account.totals());
+        assertEquals("Account Record for Nobody\nAmount owed is 0.0\nYou earned 0 frequent renter points", account.statement());
+    }
+}
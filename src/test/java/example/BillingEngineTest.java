@@ -0,0 +1,154 @@
+package example;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for the BillingEngine class.
+ */
+public class BillingEngineTest {
+
+    private static List<Customer> customers(int count) {
+        List<Customer> customers = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Movie movie = new Movie("Movie " + i, Movie.MovieType.values()[i % 3]);
+            customers.add(new Customer("Customer " + i, List.of(new Rental(movie, i % 5))));
+        }
+        return customers;
+    }
+
+    @Test
+    public void shouldEmitStatementsInSourceOrderWhenOrdered() throws InterruptedException {
+        List<Customer> customers = customers(500);
+        List<String> statements = new ArrayList<>();
+        BillingEngine engine = new BillingEngine(new ForkJoinPool(4), 8, true);
+
+        engine.run(customers.iterator(), (customer, statement) -> statements.add(statement));
+
+        assertEquals(500, statements.size());
+        for (int i = 0; i < customers.size(); i++) {
+            assertEquals(customers.get(i).statement(), statements.get(i));
+        }
+    }
+
+    @Test
+    public void shouldEmitEveryStatementWhenUnordered() throws InterruptedException {
+        List<Customer> customers = customers(500);
+        Set<String> statements = Collections.synchronizedSet(new HashSet<>());
+        BillingEngine engine = new BillingEngine(new ForkJoinPool(4), 8, false);
+
+        engine.run(customers.stream(), (customer, statement) -> statements.add(statement));
+
+        assertEquals(500, statements.size());
+        assertTrue(statements.contains(customers.get(42).statement()));
+    }
+
+    @Test
+    public void shouldReportThroughput() throws InterruptedException {
+        List<Customer> customers = customers(100);
+        long characters = customers.stream().mapToLong(c -> c.statement().length()).sum();
+        BillingEngine engine = new BillingEngine(new ForkJoinPool(2), 4, true);
+
+        BillingReport report = engine.run(customers.iterator(), (customer, statement) -> { });
+
+        assertEquals(100, report.getStatements());
+        assertEquals(characters, report.getCharacters());
+        assertEquals(2, report.getParallelism());
+        assertTrue(report.statementsPerSecond() > 0);
+    }
+
+    @Test
+    public void shouldNotPullMoreCustomersThanInFlightLimitAllows() throws InterruptedException {
+        List<Customer> customers = customers(50);
+        AtomicInteger pulled = new AtomicInteger();
+        AtomicInteger maxAhead = new AtomicInteger();
+        AtomicInteger consumed = new AtomicInteger();
+        BillingEngine engine = new BillingEngine(new ForkJoinPool(2), 3, true);
+
+        engine.run(customers.stream().peek(c -> maxAhead.accumulateAndGet(pulled.incrementAndGet() - consumed.get(), Math::max)),
+                (customer, statement) -> consumed.incrementAndGet());
+
+        assertTrue(maxAhead.get() <= 4);
+    }
+
+    @Test
+    public void shouldHandleEmptySource() throws InterruptedException {
+        BillingReport report = new BillingEngine(false).run(List.<Customer>of().iterator(), (customer, statement) -> { });
+
+        assertEquals(0, report.getStatements());
+    }
+
+    @Test(expected = CompletionException.class)
+    public void shouldPropagateRenderingFailure() throws InterruptedException {
+        Customer broken = new Customer("Broken", List.of(new Rental(null, 1)));
+
+        new BillingEngine(new ForkJoinPool(2), 2, false).run(List.of(broken).iterator(), (customer, statement) -> { });
+    }
+
+    @Test
+    public void shouldFinishInFlightStatementsWhenSourceFails() {
+        for (boolean ordered : new boolean[] {false, true}) {
+            AtomicInteger rendered = new AtomicInteger();
+            AtomicInteger emitted = new AtomicInteger();
+            Iterator<Customer> failing = new Iterator<>() {
+                int next;
+
+                @Override
+                public boolean hasNext() {
+                    return true;
+                }
+
+                @Override
+                public Customer next() {
+                    if (next == 20)
+                        throw new IllegalStateException("source failed");
+                    return new Customer("Customer " + next++, List.of()) {
+                        @Override
+                        public void statement(StringBuilder out) {
+                            sleep(5);
+                            super.statement(out);
+                            rendered.incrementAndGet();
+                        }
+                    };
+                }
+            };
+            BillingEngine engine = new BillingEngine(new ForkJoinPool(4), 8, ordered);
+
+            IllegalStateException failure = assertThrows(IllegalStateException.class,
+                    () -> engine.run(failing, (customer, statement) -> emitted.incrementAndGet()));
+            int renderedAtFailure = rendered.get();
+            int emittedAtFailure = emitted.get();
+            sleep(100);
+
+            assertEquals("source failed", failure.getMessage());
+            assertEquals("ordered=" + ordered, renderedAtFailure, rendered.get());
+            assertEquals("ordered=" + ordered, emittedAtFailure, emitted.get());
+            if (!ordered)
+                assertEquals(20, emittedAtFailure);
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Test
+    public void shouldRejectNonPositiveInFlightLimit() {
+        assertThrows(IllegalArgumentException.class, () -> new BillingEngine(ForkJoinPool.commonPool(), 0, true));
+    }
+}
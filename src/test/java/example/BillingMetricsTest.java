@@ -0,0 +1,182 @@
+package example;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.file.Path;
+import java.util.List;
+
+import static example.Movie.MovieType.*;
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for the BillingMetrics class.
+ */
+public class BillingMetricsTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static Customer customer() {
+        return new Customer("John Smith", List.of(
+                new Rental(new Movie("The Matrix", REGULAR), 3),
+                new Rental(new Movie("Avatar 3", NEW_RELEASE), 2),
+                new Rental(new Movie("Finding Nemo", CHILDRENS), 4)));
+    }
+
+    @After
+    public void disableMetrics() {
+        BillingMetrics.disable();
+    }
+
+    @Test
+    public void shouldRecordNothingWhenDisabled() {
+        BillingMetrics metrics = BillingMetrics.enable();
+        BillingMetrics.disable();
+
+        customer().statement();
+
+        assertNull(BillingMetrics.current());
+        assertEquals(0, metrics.snapshot().getStatements());
+    }
+
+    @Test
+    public void shouldCountStatementsRentalsAndCharacters() {
+        BillingMetrics metrics = BillingMetrics.enable(1);
+        Customer customer = customer();
+
+        String statement = customer.statement();
+        customer.statement();
+
+        BillingMetrics.Snapshot snapshot = metrics.snapshot();
+        assertEquals(2, snapshot.getStatements());
+        assertEquals(2L * statement.length(), snapshot.getCharacters());
+        assertEquals(2, snapshot.getLatencyNanos().getCount());
+        assertTrue(snapshot.getLatencyNanos().getMax() > 0);
+    }
+
+    @Test
+    public void shouldTimeOneStatementPerSamplingInterval() {
+        BillingMetrics metrics = BillingMetrics.enable(4);
+
+        for (int i = 0; i < 8; i++) {
+            customer().statement();
+        }
+
+        assertEquals(8, metrics.snapshot().getStatements());
+        assertEquals(2, metrics.snapshot().getLatencyNanos().getCount());
+    }
+
+    @Test
+    public void shouldKeepCountsOfTerminatedThreadsWithoutTheirCounters() throws InterruptedException {
+        BillingMetrics metrics = BillingMetrics.enable();
+
+        for (int i = 0; i < 50; i++) {
+            Thread thread = new Thread(() -> customer().statement());
+            thread.start();
+            thread.join();
+        }
+
+        BillingMetrics.Snapshot snapshot = metrics.snapshot();
+        assertEquals(50, snapshot.getStatements());
+        assertEquals(50, snapshot.getRentals(REGULAR));
+        assertEquals(0, metrics.threadCount());
+    }
+
+    @Test
+    public void shouldNotCarryCountsOfFailedStatementIntoNextOne() {
+        BillingMetrics metrics = BillingMetrics.enable();
+        Appendable failing = new Appendable() {
+            private int appends;
+
+            @Override
+            public Appendable append(CharSequence csq) {
+                return append(csq, 0, csq.length());
+            }
+
+            @Override
+            public Appendable append(CharSequence csq, int start, int end) {
+                if (++appends > 8)
+                    throw new IllegalStateException("sink failed");
+                return this;
+            }
+
+            @Override
+            public Appendable append(char c) {
+                return append("", 0, 0);
+            }
+        };
+        Customer regulars = new Customer("Jane", List.of(
+                new Rental(new Movie("Rembo", REGULAR), 3),
+                new Rental(new Movie("The Matrix", REGULAR), 3)));
+
+        assertThrows(IllegalStateException.class, () -> customer().statement(failing));
+        regulars.statement();
+
+        BillingMetrics.Snapshot snapshot = metrics.snapshot();
+        assertEquals(1, snapshot.getStatements());
+        assertEquals(2, snapshot.getRentals(REGULAR));
+        assertEquals(700, snapshot.getAmountCents(REGULAR));
+        assertEquals(0, snapshot.getRentals(NEW_RELEASE));
+    }
+
+    @Test
+    public void shouldRejectSamplingThatIsNotPowerOfTwo() {
+        assertThrows(IllegalArgumentException.class, () -> BillingMetrics.enable(3));
+    }
+
+    @Test
+    public void shouldSplitRevenueAndPointsByMovieType() {
+        BillingMetrics metrics = BillingMetrics.enable();
+
+        customer().statement();
+
+        BillingMetrics.Snapshot snapshot = metrics.snapshot();
+        assertEquals(1, snapshot.getRentals(REGULAR));
+        assertEquals(350, snapshot.getAmountCents(REGULAR));
+        assertEquals(600, snapshot.getAmountCents(NEW_RELEASE));
+        assertEquals(2, snapshot.getFrequentRenterPoints(NEW_RELEASE));
+        assertEquals(300, snapshot.getAmountCents(CHILDRENS));
+    }
+
+    @Test
+    public void shouldNotChangeStatementText() throws IOException {
+        String expected = customer().statement();
+        BillingMetrics.enable();
+        StringWriter writer = new StringWriter();
+
+        customer().statement(writer);
+
+        assertEquals(expected, writer.toString());
+        assertEquals(expected, customer().statement());
+    }
+
+    @Test
+    public void shouldCommitJfrEventPerStatement() throws IOException {
+        Path file = folder.newFile("statements.jfr").toPath();
+        BillingMetrics.enable();
+
+        try (Recording recording = new Recording()) {
+            recording.enable("example.Statement").withoutThreshold();
+            recording.start();
+            customer().statement();
+            recording.stop();
+            recording.dump(file);
+        }
+
+        List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+        assertEquals(1, events.stream().filter(e -> e.getEventType().getName().equals("example.Statement")).count());
+        RecordedEvent event = events.stream().filter(e -> e.getEventType().getName().equals("example.Statement")).findFirst().orElseThrow();
+        assertEquals("John Smith", event.getString("customer"));
+        assertEquals(3, event.getLong("rentals"));
+        assertEquals(1250, event.getLong("amountCents"));
+        assertEquals(4, event.getLong("frequentRenterPoints"));
+    }
+}
@@ -0,0 +1,138 @@
+package example;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static example.Movie.MovieType.*;
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for the BillingSnapshot and BillingSnapshotWriter classes.
+ */
+public class BillingSnapshotTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static List<Customer> customers(int count) {
+        List<Customer> customers = new ArrayList<>();
+        for (int c = 0; c < count; c++) {
+            List<Rental> rentals = new ArrayList<>();
+            for (int i = 0; i < c % 7; i++)
+                rentals.add(new Rental(new Movie("Movie " + (c + i) % 13, Movie.MovieType.values()[(c + i) % 13 % 3]), 1 + i * c % 9));
+            customers.add(new Customer("Customer " + c + " Zoë", rentals));
+        }
+        return customers;
+    }
+
+    private Path write(List<Customer> customers) throws IOException {
+        Path file = folder.newFile().toPath();
+        try (BillingSnapshotWriter writer = new BillingSnapshotWriter(file, new MovieCatalog())) {
+            for (Customer customer : customers)
+                writer.write(customer);
+        }
+        return file;
+    }
+
+    @Test
+    public void shouldRestoreStatementsOfEveryCustomer() throws IOException {
+        List<Customer> customers = customers(50);
+
+        try (BillingSnapshot snapshot = new BillingSnapshot(write(customers))) {
+            assertEquals(50, snapshot.getCustomers());
+            assertEquals(customers.stream().mapToLong(c -> c.rentals().size()).sum(), snapshot.getRentals());
+            assertEquals(13, snapshot.catalog().size());
+            for (int i = 0; i < customers.size(); i++)
+                assertEquals(customers.get(i).statement(), snapshot.customer(i).statement());
+        }
+    }
+
+    @Test
+    public void shouldFindCustomersByName() throws IOException {
+        List<Customer> customers = customers(20);
+
+        try (BillingSnapshot snapshot = new BillingSnapshot(write(customers))) {
+            assertEquals(customers.get(13).statement(), snapshot.customer("Customer 13 Zoë").statement());
+            assertNull(snapshot.customer("Nobody"));
+        }
+    }
+
+    @Test
+    public void shouldReadRentalsAcrossMappedSegments() throws IOException {
+        List<Rental> rentals = new ArrayList<>();
+        for (int i = 0; i < 100; i++)
+            rentals.add(new Rental(new Movie("Movie " + i % 5, Movie.MovieType.values()[i % 5 % 3]), i % 11));
+        List<Customer> customers = List.of(new Customer("First", rentals.subList(0, 3)), new Customer("Second", rentals.subList(3, 100)));
+
+        try (BillingSnapshot snapshot = new BillingSnapshot(write(customers), PriceTable.STANDARD, 2)) {
+            assertEquals(customers.get(0).statement(), snapshot.customer(0).statement());
+            assertEquals(customers.get(1).statement(), snapshot.customer(1).statement());
+        }
+    }
+
+    @Test
+    public void shouldPriceWithGivenTable() throws IOException {
+        PriceTable prices = PriceTable.STANDARD.withPolicy(REGULAR, new Tariff(500, 2, 150, Integer.MAX_VALUE));
+        List<Customer> customers = List.of(new Customer("John", List.of(new Rental(new Movie("Rembo", REGULAR), 3))));
+
+        try (BillingSnapshot snapshot = new BillingSnapshot(write(customers), prices)) {
+            assertEquals(650, snapshot.customer(0).totals().getAmountCents());
+        }
+    }
+
+    @Test
+    public void shouldRejectCustomerWithConflictingTypeBeforeWritingIt() throws IOException {
+        Path file = folder.newFile().toPath();
+        Customer john = new Customer("John", List.of(new Rental(new Movie("Rembo", REGULAR), 3)));
+        Customer jane = new Customer("Jane", List.of(
+                new Rental(new Movie("Harry Potter", CHILDRENS), 2),
+                new Rental(new Movie("Rembo", NEW_RELEASE), 1)));
+        Customer joe = new Customer("Joe", List.of(
+                new Rental(new Movie("Up", CHILDRENS), 2),
+                new Rental(new Movie("Up", REGULAR), 1)));
+        MovieCatalog catalog = new MovieCatalog();
+
+        try (BillingSnapshotWriter writer = new BillingSnapshotWriter(file, catalog)) {
+            writer.write(john);
+            assertThrows(IllegalArgumentException.class, () -> writer.write(jane));
+            assertThrows(IllegalArgumentException.class, () -> writer.write(joe));
+            assertEquals(1, writer.getCustomers());
+            assertEquals(1, writer.getRentals());
+        }
+
+        assertEquals(1, catalog.size());
+        try (BillingSnapshot snapshot = new BillingSnapshot(file)) {
+            assertEquals(1, snapshot.getCustomers());
+            assertEquals(1, snapshot.getRentals());
+            assertEquals(john.statement(), snapshot.customer("John").statement());
+        }
+    }
+
+    @Test
+    public void shouldLoadEmptySnapshot() throws IOException {
+        try (BillingSnapshot snapshot = new BillingSnapshot(write(List.of()))) {
+            assertEquals(0, snapshot.getCustomers());
+            assertEquals(0, snapshot.getRentals());
+        }
+    }
+
+    @Test
+    public void shouldRejectOtherFiles() throws IOException {
+        Path file = folder.newFile().toPath();
+        Files.write(file, new byte[100]);
+
+        try {
+            new BillingSnapshot(file);
+            fail("Expected IOException");
+        } catch (IOException e) {
+            assertTrue(e.getMessage().startsWith("Not a billing snapshot"));
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package example;
+
+import org.junit.Test;
+
+import java.util.stream.LongStream;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for the BillingTotals class.
+ */
+public class BillingTotalsTest {
+
+    @Test
+    public void shouldAddTotals() {
+        BillingTotals sum = new BillingTotals(1, 350, 1).plus(new BillingTotals(2, 900, 3));
+
+        assertEquals(3, sum.getRentals());
+        assertEquals(1250, sum.getAmountCents());
+        assertEquals(4, sum.getFrequentRenterPoints());
+    }
+
+    @Test
+    public void shouldCompareByValue() {
+        assertEquals(new BillingTotals(1, 200, 1), new BillingTotals(1, 200, 1));
+        assertEquals(new BillingTotals(1, 200, 1).hashCode(), new BillingTotals(1, 200, 1).hashCode());
+        assertNotEquals(new BillingTotals(1, 200, 1), new BillingTotals(1, 200, 2));
+    }
+
+    @Test
+    public void shouldDescribeAmountLikeStatement() {
+        assertEquals("3 rentals, 12.5 owed, 4 points", new BillingTotals(3, 1250, 4).toString());
+    }
+
+    @Test
+    public void shouldSumTotalsWithParallelCollector() {
+        BillingTotals sum = LongStream.rangeClosed(1, 10_000).parallel()
+                .mapToObj(i -> new BillingTotals(1, i, i % 3))
+                .collect(BillingTotals.summing());
+
+        assertEquals(new BillingTotals(10_000, 50_005_000, 10_000), sum);
+    }
+}
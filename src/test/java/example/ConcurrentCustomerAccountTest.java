@@ -0,0 +1,136 @@
+package example;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static example.Movie.MovieType.*;
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for the ConcurrentCustomerAccount class.
+ */
+public class ConcurrentCustomerAccountTest {
+
+    private static final List<Rental> RENTALS = List.of(
+            new Rental(new Movie("Rembo", REGULAR), 1),
+            new Rental(new Movie("Lord of the Rings", NEW_RELEASE), 4),
+            new Rental(new Movie("Harry Potter", CHILDRENS), 5));
+
+    @Test
+    public void shouldMatchImmutableCustomerWhenUsedFromOneThread() {
+        ConcurrentCustomerAccount account = new ConcurrentCustomerAccount("John Doe");
+        RENTALS.forEach(account::addRental);
+
+        Customer customer = new Customer("John Doe", RENTALS);
+        assertEquals(customer.statement(), account.statement());
+        assertEquals(customer.totals(), account.totals());
+        assertEquals(3, account.getRentalCount());
+        assertEquals(1850, account.getTotalAmountCents());
+        assertEquals(4, account.getFrequentRenterPoints());
+    }
+
+    @Test
+    public void shouldKeepSnapshotUnchangedByLaterAdditions() {
+        ConcurrentCustomerAccount account = new ConcurrentCustomerAccount("John Doe");
+        account.addRental(RENTALS.get(0));
+        Customer before = account.snapshot();
+
+        account.addRental(RENTALS.get(1));
+        account.addRental(RENTALS.get(2));
+
+        assertEquals(new Customer("John Doe", RENTALS.subList(0, 1)).statement(), before.statement());
+        assertEquals(new Customer("John Doe", RENTALS).statement(), account.statement());
+        assertEquals(new Customer("John Doe", RENTALS.subList(0, 1)).statement(), before.statement());
+    }
+
+    @Test
+    public void shouldStateEmptyAccount() {
+        ConcurrentCustomerAccount account = new ConcurrentCustomerAccount("Nobody");
+
+        assertEquals(new Customer("Nobody", List.of()).statement(), account.statement());
+        assertEquals(BillingTotals.ZERO, account.totals());
+    }
+
+    @Test
+    public void shouldNotLoseConcurrentAdditions() throws Exception {
+        ConcurrentCustomerAccount account = new ConcurrentCustomerAccount("Popular");
+        int writers = 4;
+        int perWriter = 10_000;
+        ExecutorService pool = Executors.newFixedThreadPool(writers);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int w = 0; w < writers; w++) {
+                Movie movie = new Movie("Writer " + w, Movie.MovieType.values()[w % 3]);
+                futures.add(pool.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < perWriter; i++)
+                        account.addRental(new Rental(movie, i % 7));
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures)
+                future.get();
+        } finally {
+            pool.shutdown();
+        }
+
+        Customer snapshot = account.snapshot();
+        assertEquals(writers * perWriter, account.getRentalCount());
+        assertEquals(snapshot.totals(), account.totals());
+        int[] nextDays = new int[writers];
+        for (int i = 0; i < snapshot.rentals().size(); i++) {
+            int writer = snapshot.rentals().title(i).charAt(7) - '0';
+            assertEquals("order of writer " + writer, nextDays[writer]++ % 7, snapshot.rentals().daysRented(i));
+        }
+    }
+
+    @Test
+    public void shouldGiveReadersConsistentSnapshotsWhileWritersAdd() throws Exception {
+        ConcurrentCustomerAccount account = new ConcurrentCustomerAccount("Popular");
+        AtomicBoolean done = new AtomicBoolean();
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> writers = new ArrayList<>();
+            for (int w = 0; w < 2; w++) {
+                writers.add(pool.submit(() -> {
+                    for (int i = 0; i < 5_000; i++)
+                        account.addRental(RENTALS.get(i % 3));
+                }));
+            }
+            List<Future<Integer>> readers = new ArrayList<>();
+            for (int r = 0; r < 2; r++) {
+                readers.add(pool.submit(() -> {
+                    int reads = 0;
+                    int lastCount = 0;
+                    do {
+                        Customer snapshot = account.snapshot();
+                        BillingTotals totals = snapshot.totals();
+                        assertTrue(totals.getRentals() >= lastCount);
+                        String statement = snapshot.statement();
+                        assertTrue(statement.endsWith("You earned " + totals.getFrequentRenterPoints() + " frequent renter points"));
+                        lastCount = (int) totals.getRentals();
+                        reads++;
+                    } while (!done.get());
+                    return reads;
+                }));
+            }
+            for (Future<?> writer : writers)
+                writer.get();
+            done.set(true);
+            for (Future<Integer> reader : readers)
+                assertTrue(reader.get() > 0);
+        } finally {
+            pool.shutdown();
+        }
+        assertEquals(10_000, account.snapshot().totals().getRentals());
+    }
+}
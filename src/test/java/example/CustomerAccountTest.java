@@ -0,0 +1,92 @@
+package example;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static example.Movie.MovieType.*;
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for the CustomerAccount class.
+ */
+public class CustomerAccountTest {
+
+    @Test
+    public void shouldStartWithEmptyBalance() {
+        CustomerAccount account = new CustomerAccount("John");
+
+        assertEquals(0, account.getTotalAmountCents());
+        assertEquals(0, account.getFrequentRenterPoints());
+        assertEquals(new Customer("John", List.of()).statement(), account.statement());
+    }
+
+    @Test
+    public void shouldUpdateRunningTotalsOnAdd() {
+        CustomerAccount account = new CustomerAccount("John");
+
+        account.addRental(new Rental(new Movie("The Matrix", REGULAR), 3));
+        account.addRental(new Rental(new Movie("Avatar 3", NEW_RELEASE), 2));
+
+        assertEquals(950, account.getTotalAmountCents());
+        assertEquals(3, account.getFrequentRenterPoints());
+        assertEquals(2, account.getRentalCount());
+    }
+
+    @Test
+    public void shouldUpdateRunningTotalsOnReturn() {
+        CustomerAccount account = new CustomerAccount("John");
+        Rental matrix = new Rental(new Movie("The Matrix", REGULAR), 3);
+        account.addRental(matrix);
+        account.addRental(new Rental(new Movie("Avatar 3", NEW_RELEASE), 2));
+
+        assertTrue(account.returnRental(matrix));
+
+        assertEquals(600, account.getTotalAmountCents());
+        assertEquals(2, account.getFrequentRenterPoints());
+        assertFalse(account.returnRental(matrix));
+    }
+
+    @Test
+    public void shouldRenderSameStatementAsCustomer() {
+        CustomerAccount account = new CustomerAccount("John Smith");
+        List<Rental> rentals = List.of(
+                new Rental(new Movie("The Matrix", REGULAR), 3),
+                new Rental(new Movie("Avatar 3", NEW_RELEASE), 2),
+                new Rental(new Movie("Finding Nemo", CHILDRENS), 4));
+        rentals.forEach(account::addRental);
+
+        assertEquals(new Customer("John Smith", rentals).statement(), account.statement());
+    }
+
+    @Test
+    public void shouldReuseStatementUntilRentalsChange() {
+        CustomerAccount account = new CustomerAccount("John");
+        account.addRental(new Rental(new Movie("The Matrix", REGULAR), 3));
+
+        String first = account.statement();
+
+        assertSame(first, account.statement());
+        account.addRental(new Rental(new Movie("Avatar 3", NEW_RELEASE), 2));
+        assertNotSame(first, account.statement());
+    }
+
+    @Test
+    public void shouldKeepStatementInSyncThroughAddsAndReturns() {
+        CustomerAccount account = new CustomerAccount("John");
+        List<Rental> current = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            Rental rental = new Rental(new Movie("Movie " + i, Movie.MovieType.values()[i % 3]), i % 9);
+            account.addRental(rental);
+            current.add(rental);
+            if (i % 5 == 0) {
+                account.statement();
+                Rental returned = current.remove(i % current.size());
+                account.returnRental(returned);
+            }
+        }
+
+        assertEquals(new Customer("John", current).statement(), account.statement());
+    }
+}
@@ -2,6 +2,8 @@ package example;
 
 import org.junit.Test;
 
+import java.io.IOException;
+import java.io.StringWriter;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -463,4 +465,88 @@ public class CustomerTest {
         // Points: 1 + 1 (no bonus for 1 day new release) + 1 = 3
         assertTrue(statement.contains("You earned 3 frequent renter points"));
     }
-}
\ No newline at end of file
+
+    // ============ Streaming Statement Tests ============
+
+    @Test
+    public void shouldStreamSameStatementToWriter() throws IOException {
+        Customer customer = new Customer("John Smith", List.of(
+                new Rental(new Movie("The Matrix", REGULAR), 3),
+                new Rental(new Movie("Avatar 3", NEW_RELEASE), 2),
+                new Rental(new Movie("Finding Nemo", CHILDRENS), 4)));
+        StringWriter writer = new StringWriter();
+
+        customer.statement(writer);
+
+        assertEquals(customer.statement(), writer.toString());
+    }
+
+    @Test
+    public void shouldAppendStatementToExistingBuilder() {
+        Customer customer = new Customer("John", List.of(new Rental(new Movie("The Matrix", REGULAR), 5)));
+        StringBuilder builder = new StringBuilder("prefix:");
+
+        customer.statement(builder);
+
+        assertEquals("prefix:" + customer.statement(), builder.toString());
+    }
+
+    @Test
+    public void shouldPresizeBufferForWholeStatement() {
+        List<Rental> rentals = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            rentals.add(new Rental(new Movie("Movie " + i, NEW_RELEASE), 365));
+        }
+        Customer customer = new Customer("John", rentals);
+
+        assertTrue(customer.estimatedStatementLength() >= customer.statement().length());
+    }
+
+    @Test
+    public void shouldStreamLargeStatementIdenticalToConcatenation() {
+        List<Rental> rentals = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            Movie.MovieType type = Movie.MovieType.values()[i % 3];
+            rentals.add(new Rental(new Movie("Movie " + i, type), i % 7));
+        }
+        Customer customer = new Customer("John", rentals);
+
+        String expected = "Rental Record for John\n";
+        double total = 0;
+        int points = 0;
+        StringBuilder lines = new StringBuilder();
+        for (Rental each : rentals) {
+            double amount = switch (each.getMovie().getPriceCode()) {
+                case REGULAR -> 2 + Math.max(0, each.getDaysRented() - 2) * 1.5;
+                case NEW_RELEASE -> each.getDaysRented() * 3;
+                case CHILDRENS -> 1.5 + Math.max(0, each.getDaysRented() - 3) * 1.5;
+            };
+            points += each.getMovie().getPriceCode() == NEW_RELEASE && each.getDaysRented() > 1 ? 2 : 1;
+            lines.append("\t").append(each.getMovie().getTitle()).append("\t").append(amount).append("\n");
+            total += amount;
+        }
+        expected += lines + "Amount owed is " + total + "\n" + "You earned " + points + " frequent renter points";
+
+        assertEquals(expected, customer.statement());
+    }
+
+    // ============ Fingerprint Tests ============
+
+    @Test
+    public void shouldHaveSameFingerprintForEqualRentals() {
+        Customer first = new Customer("John", List.of(new Rental(new Movie("The Matrix", REGULAR), 3)));
+        Customer second = new Customer("Jane", RentalLedger.of(List.of(new Rental(new Movie("The Matrix", REGULAR), 3))));
+
+        assertEquals(first.fingerprint(), second.fingerprint());
+    }
+
+    @Test
+    public void shouldChangeFingerprintWhenAnyRentalFieldChanges() {
+        long base = new Customer("John", List.of(new Rental(new Movie("The Matrix", REGULAR), 3))).fingerprint();
+
+        assertNotEquals(base, new Customer("John", List.of(new Rental(new Movie("The Matrix 2", REGULAR), 3))).fingerprint());
+        assertNotEquals(base, new Customer("John", List.of(new Rental(new Movie("The Matrix", NEW_RELEASE), 3))).fingerprint());
+        assertNotEquals(base, new Customer("John", List.of(new Rental(new Movie("The Matrix", REGULAR), 4))).fingerprint());
+        assertNotEquals(base, new Customer("John", List.of()).fingerprint());
+    }
+}
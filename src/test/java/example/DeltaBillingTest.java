@@ -0,0 +1,172 @@
+package example;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static example.Movie.MovieType.*;
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for the DeltaBilling class.
+ */
+public class DeltaBillingTest {
+
+    private static final Movie REMBO = new Movie("Rembo", REGULAR);
+    private static final Movie LORD_OF_THE_RINGS = new Movie("Lord of the Rings", NEW_RELEASE);
+    private static final Movie HARRY_POTTER = new Movie("Harry Potter", CHILDRENS);
+
+    private static Map<String, String> run(DeltaBilling billing, Customer... customers) {
+        Map<String, String> statements = new LinkedHashMap<>();
+        billing.run(Stream.of(customers), (customer, statement) -> statements.put(customer.getName(), statement));
+        return statements;
+    }
+
+    private static Customer john(Rental... rentals) {
+        return new Customer("John Doe", List.of(rentals));
+    }
+
+    @Test
+    public void shouldBillNewCustomersInFull() {
+        DeltaBilling billing = new DeltaBilling();
+
+        Map<String, String> statements = run(billing, john(new Rental(REMBO, 1), new Rental(LORD_OF_THE_RINGS, 4)));
+
+        assertEquals("Rental Record for John Doe\n"
+                + "+\tRembo\t2.0\n"
+                + "+\tLord of the Rings\t12.0\n"
+                + "Amount owed is 14.0\n"
+                + "You earned 3 frequent renter points", statements.get("John Doe"));
+        assertEquals(1, billing.size());
+    }
+
+    @Test
+    public void shouldSkipUnchangedCustomers() {
+        DeltaBilling billing = new DeltaBilling();
+        billing.run(Stream.of(john(new Rental(REMBO, 1)), new Customer("Jane", List.of(new Rental(REMBO, 3)))), (c, s) -> { });
+
+        List<String> billed = new ArrayList<>();
+        DeltaReport report = billing.run(Stream.of(john(new Rental(REMBO, 1)), new Customer("Jane", List.of(new Rental(REMBO, 3)))),
+                (customer, statement) -> billed.add(customer.getName()));
+
+        assertTrue(billed.isEmpty());
+        assertEquals(2, report.getCustomers());
+        assertEquals(2, report.getUnchanged());
+        assertEquals(0, report.getChanged());
+        assertEquals(1.0, report.skipRatio(), 0.0);
+        assertEquals(0, report.getLines());
+        assertTrue(report.getSavedNanos() > 0);
+    }
+
+    @Test
+    public void shouldNotEstimateSavingsFromColdFirstRun() {
+        DeltaBilling billing = new DeltaBilling();
+        Customer cold = new Customer("John Doe", List.of(new Rental(REMBO, 1))) {
+            @Override
+            RentalSource rentals() {
+                try {
+                    Thread.sleep(50);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return super.rentals();
+            }
+        };
+        run(billing, cold, new Customer("Jane", List.of(new Rental(REMBO, 3))));
+
+        DeltaReport changed = billing.run(Stream.of(john(new Rental(REMBO, 2)), new Customer("Jane", List.of(new Rental(REMBO, 3)))),
+                (c, s) -> { });
+        DeltaReport unchanged = billing.run(Stream.of(john(new Rental(REMBO, 2)), new Customer("Jane", List.of(new Rental(REMBO, 3)))),
+                (c, s) -> { });
+
+        assertEquals(1, changed.getUnchanged());
+        assertTrue(changed.getSavedNanos() < 10_000_000);
+        assertEquals(2, unchanged.getUnchanged());
+        assertTrue(unchanged.getSavedNanos() > 0);
+        assertTrue(unchanged.getSavedNanos() < 10_000_000);
+    }
+
+    @Test
+    public void shouldEmitOnlyAppendedRentals() {
+        DeltaBilling billing = new DeltaBilling();
+        run(billing, john(new Rental(REMBO, 1), new Rental(LORD_OF_THE_RINGS, 4)));
+
+        Map<String, String> statements = run(billing,
+                john(new Rental(REMBO, 1), new Rental(LORD_OF_THE_RINGS, 4), new Rental(HARRY_POTTER, 5)));
+
+        assertEquals("Rental Record for John Doe\n"
+                + "+\tHarry Potter\t4.5\n"
+                + "Amount owed is 18.5\n"
+                + "You earned 4 frequent renter points\n"
+                + "Previously owed 14.0 for 3 frequent renter points", statements.get("John Doe"));
+    }
+
+    @Test
+    public void shouldEmitChangedRentalsBetweenUnchangedOnes() {
+        DeltaBilling billing = new DeltaBilling();
+        run(billing, john(new Rental(REMBO, 1), new Rental(LORD_OF_THE_RINGS, 4), new Rental(HARRY_POTTER, 5)));
+
+        Map<String, String> statements = new LinkedHashMap<>();
+        DeltaReport report = billing.run(Stream.of(john(new Rental(REMBO, 1), new Rental(LORD_OF_THE_RINGS, 2), new Rental(HARRY_POTTER, 5))),
+                (customer, statement) -> statements.put(customer.getName(), statement));
+
+        assertEquals("Rental Record for John Doe\n"
+                + "-\tLord of the Rings\t12.0\n"
+                + "+\tLord of the Rings\t6.0\n"
+                + "Amount owed is 12.5\n"
+                + "You earned 4 frequent renter points\n"
+                + "Previously owed 18.5 for 4 frequent renter points", statements.get("John Doe"));
+        assertEquals(1, report.getChanged());
+        assertEquals(2, report.getLines());
+    }
+
+    @Test
+    public void shouldRebillWhenPricesChange() {
+        DeltaBilling billing = new DeltaBilling();
+        List<Rental> rentals = List.of(new Rental(REMBO, 1), new Rental(HARRY_POTTER, 5));
+        run(billing, new Customer("John Doe", RentalSource.of(rentals), PriceTable.STANDARD));
+
+        PriceTable cheaperChildrens = PriceTable.STANDARD.withPolicy(CHILDRENS, new Tariff(100, 3, 100, Integer.MAX_VALUE));
+        Map<String, String> statements = run(billing, new Customer("John Doe", RentalSource.of(rentals), cheaperChildrens));
+
+        assertEquals("Rental Record for John Doe\n"
+                + "-\tHarry Potter\t4.5\n"
+                + "+\tHarry Potter\t3.0\n"
+                + "Amount owed is 5.0\n"
+                + "You earned 2 frequent renter points\n"
+                + "Previously owed 6.5 for 2 frequent renter points", statements.get("John Doe"));
+    }
+
+    @Test
+    public void shouldForgetRemovedCustomers() {
+        DeltaBilling billing = new DeltaBilling();
+        Customer jane = new Customer("Jane", List.of(new Rental(REMBO, 3)));
+        billing.run(Stream.of(john(new Rental(REMBO, 1)), jane), (c, s) -> { });
+
+        DeltaReport report = billing.run(Stream.of(john(new Rental(REMBO, 1))), (c, s) -> { });
+        assertEquals(1, report.getRemoved());
+        assertEquals(1, billing.size());
+
+        report = billing.run(Stream.of(john(new Rental(REMBO, 1)), jane), (c, s) -> { });
+        assertEquals(1, report.getAdded());
+        assertEquals(0.5, report.skipRatio(), 0.0);
+    }
+
+    @Test
+    public void shouldRejectDuplicateCustomersAndKeepPreviousRun() {
+        DeltaBilling billing = new DeltaBilling();
+        run(billing, john(new Rental(REMBO, 1)), new Customer("Jane", List.of(new Rental(REMBO, 3))));
+
+        assertThrows(IllegalArgumentException.class,
+                () -> run(billing, john(new Rental(REMBO, 1)), john(new Rental(REMBO, 2))));
+
+        DeltaReport report = billing.run(Stream.of(john(new Rental(REMBO, 1)), new Customer("Jane", List.of(new Rental(REMBO, 3)))),
+                (c, s) -> { });
+        assertEquals(2, report.getUnchanged());
+        assertEquals(0, report.getRemoved());
+    }
+}
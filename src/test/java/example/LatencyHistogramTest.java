@@ -0,0 +1,78 @@
+package example;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for the LatencyHistogram class.
+ */
+public class LatencyHistogramTest {
+
+    @Test
+    public void shouldCountSmallValuesExactly() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 1; i <= 20; i++) {
+            histogram.record(i);
+        }
+
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+
+        assertEquals(20, snapshot.getCount());
+        assertEquals(10, snapshot.valueAtPercentile(50));
+        assertEquals(20, snapshot.valueAtPercentile(100));
+        assertEquals(20, snapshot.getMax());
+    }
+
+    @Test
+    public void shouldKeepLargeValuesWithinBucketPrecision() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long value = 1_000; value <= 1_000_000; value += 1_000) {
+            histogram.record(value);
+        }
+
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+
+        assertEquals(500_000, snapshot.valueAtPercentile(50), 500_000 * 0.07);
+        assertEquals(990_000, snapshot.valueAtPercentile(99), 990_000 * 0.07);
+        assertEquals(1_000_000, snapshot.valueAtPercentile(100));
+    }
+
+    @Test
+    public void shouldMapEveryValueIntoBucketCoveringIt() {
+        for (long value : new long[] {0, 31, 32, 33, 1_000, 123_456_789, Long.MAX_VALUE}) {
+            int index = LatencyHistogram.index(value);
+
+            assertTrue(value <= LatencyHistogram.highestValue(index));
+            assertTrue(index == 0 || value > LatencyHistogram.highestValue(index - 1));
+        }
+    }
+
+    @Test
+    public void shouldReportZeroForEmptyHistogram() {
+        assertEquals(0, new LatencyHistogram().snapshot().valueAtPercentile(99));
+    }
+
+    @Test
+    public void shouldRecordConcurrently() throws InterruptedException {
+        LatencyHistogram histogram = new LatencyHistogram();
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            Thread thread = new Thread(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    histogram.record(i);
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(40_000, histogram.snapshot().getCount());
+    }
+}
@@ -0,0 +1,110 @@
+package example;
+
+import org.junit.Test;
+
+import java.util.List;
+
+import static example.Movie.MovieType.*;
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for the LazyStatement class.
+ */
+public class LazyStatementTest {
+
+    private static final List<Rental> RENTALS = List.of(
+            new Rental(new Movie("Rembo", REGULAR), 1),
+            new Rental(new Movie("Lord of the Rings", NEW_RELEASE), 4),
+            new Rental(new Movie("Harry Potter", CHILDRENS), 5));
+
+    /**
+     * Counts how often titles and rows are read.
+     */
+    private static final class CountingSource implements RentalSource {
+        private final RentalSource rentals = RentalSource.of(RENTALS);
+        int titleReads;
+        int typeReads;
+
+        @Override
+        public int size() {
+            return rentals.size();
+        }
+
+        @Override
+        public String title(int index) {
+            titleReads++;
+            return rentals.title(index);
+        }
+
+        @Override
+        public Movie.MovieType type(int index) {
+            typeReads++;
+            return rentals.type(index);
+        }
+
+        @Override
+        public int daysRented(int index) {
+            return rentals.daysRented(index);
+        }
+    }
+
+    @Test
+    public void shouldComputeTotalsWithoutReadingTitles() {
+        CountingSource source = new CountingSource();
+        LazyStatement statement = new Customer("John Doe", source).lazyStatement();
+
+        assertEquals(1850, statement.getAmountCents());
+        assertEquals(4, statement.getFrequentRenterPoints());
+        assertEquals(3, statement.totals().getRentals());
+        assertEquals(0, source.titleReads);
+        assertEquals(3, source.typeReads);
+    }
+
+    @Test
+    public void shouldMemoizeEachPart() {
+        CountingSource source = new CountingSource();
+        LazyStatement statement = new Customer("John Doe", source).lazyStatement();
+
+        assertSame(statement.totals(), statement.totals());
+        assertSame(statement.lines(), statement.lines());
+        assertSame(statement.text(), statement.text());
+        assertEquals(3, source.titleReads);
+    }
+
+    @Test
+    public void shouldExposeLineDetails() {
+        List<LazyStatement.Line> lines = new Customer("John Doe", RENTALS).lazyStatement().lines();
+
+        assertEquals(3, lines.size());
+        LazyStatement.Line line = lines.get(1);
+        assertEquals("Lord of the Rings", line.getTitle());
+        assertEquals(NEW_RELEASE, line.getType());
+        assertEquals(4, line.getDaysRented());
+        assertEquals(1200, line.getAmountCents());
+        assertEquals(2, line.getFrequentRenterPoints());
+    }
+
+    @Test
+    public void shouldRenderSameTextAsStatement() {
+        Customer customer = new Customer("John Doe", RENTALS);
+
+        assertEquals(customer.statement(), customer.lazyStatement().text());
+        assertEquals(new Customer("Empty", List.of()).statement(), new Customer("Empty", List.of()).lazyStatement().text());
+    }
+
+    @Test
+    public void shouldReuseComputedLinesForTotalsAndText() {
+        CountingSource source = new CountingSource();
+        Customer customer = new Customer("John Doe", source);
+        LazyStatement statement = customer.lazyStatement();
+
+        statement.lines();
+        BillingTotals totals = statement.totals();
+        String text = statement.text();
+
+        assertEquals(3, source.typeReads);
+        assertEquals(3, source.titleReads);
+        assertEquals(new Customer("John Doe", RENTALS).totals(), totals);
+        assertEquals(new Customer("John Doe", RENTALS).statement(), text);
+    }
+}
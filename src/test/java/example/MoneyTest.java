@@ -0,0 +1,71 @@
+package example;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.SplittableRandom;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for the Money class.
+ */
+public class MoneyTest {
+
+    private static String viaAppendable(long cents) throws IOException {
+        StringWriter writer = new StringWriter();
+        Money.append(writer, cents);
+        return writer.toString();
+    }
+
+    @Test
+    public void shouldFormatLikeDoubleToString() {
+        assertEquals("0.0", Money.toString(0));
+        assertEquals("2.0", Money.toString(200));
+        assertEquals("6.5", Money.toString(650));
+        assertEquals("12.25", Money.toString(1225));
+        assertEquals("0.05", Money.toString(5));
+        assertEquals("546.5", Money.toString(54650));
+    }
+
+    @Test
+    public void shouldFormatEveryCentValueLikeDouble() throws IOException {
+        for (long cents = -10_000; cents <= 1_000_000; cents++) {
+            String expected = Double.toString(cents / 100.0);
+            assertEquals(expected, Money.toString(cents));
+            if (cents % 997 == 0)
+                assertEquals(expected, viaAppendable(cents));
+        }
+    }
+
+    @Test
+    public void shouldSwitchToScientificNotationLikeDouble() throws IOException {
+        SplittableRandom random = new SplittableRandom(7);
+        for (int i = 0; i < 10_000; i++) {
+            long cents = random.nextLong(2_000_000_000L) * 5;
+            String expected = Double.toString(cents / 100.0);
+            assertEquals(expected, Money.toString(cents));
+            assertEquals(expected, viaAppendable(cents));
+        }
+        assertEquals("1.0E7", Money.toString(1_000_000_000L));
+        assertEquals("9999999.99", Money.toString(999_999_999L));
+    }
+
+    @Test
+    public void shouldConvertBetweenDoubleAndCents() {
+        assertEquals(650, Money.cents(6.5));
+        assertEquals(1, Money.cents(0.01));
+        assertEquals(6.5, Money.toDouble(650), 0);
+    }
+
+    @Test
+    public void shouldKeepTotalsExactOverManyRentals() {
+        RentalLedger ledger = new RentalLedger();
+        for (int i = 0; i < 1_000_000; i++) {
+            ledger.add("Movie", Movie.MovieType.REGULAR, 3);
+        }
+
+        assertEquals(350_000_000L, ledger.totalAmountCents());
+    }
+}
@@ -0,0 +1,94 @@
+package example;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static example.Movie.MovieType.*;
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for the MovieCatalog class.
+ */
+public class MovieCatalogTest {
+
+    @Test
+    public void shouldAssignDenseIdsInRegistrationOrder() {
+        MovieCatalog catalog = new MovieCatalog();
+
+        assertEquals(0, catalog.register("Rembo", REGULAR));
+        assertEquals(1, catalog.register("Lord of the Rings", NEW_RELEASE));
+        assertEquals(2, catalog.size());
+    }
+
+    @Test
+    public void shouldReturnCanonicalMovieForSameTitle() {
+        MovieCatalog catalog = new MovieCatalog();
+        int id = catalog.register("Harry Potter", CHILDRENS);
+
+        assertEquals(id, catalog.register(new String("Harry Potter"), CHILDRENS));
+        assertSame(catalog.movie(id), catalog.movie("Harry Potter"));
+        assertEquals(CHILDRENS, catalog.movie(id).getPriceCode());
+    }
+
+    @Test
+    public void shouldReportUnknownTitles() {
+        MovieCatalog catalog = new MovieCatalog();
+
+        assertNull(catalog.movie("Unknown"));
+        assertEquals(-1, catalog.id("Unknown"));
+        assertThrows(IllegalArgumentException.class, () -> catalog.movie(0));
+    }
+
+    @Test
+    public void shouldRejectTitleRegisteredWithAnotherType() {
+        MovieCatalog catalog = new MovieCatalog();
+        catalog.register("Rembo", REGULAR);
+
+        assertThrows(IllegalArgumentException.class, () -> catalog.register("Rembo", NEW_RELEASE));
+    }
+
+    @Test
+    public void shouldBulkLoadAndGrow() {
+        MovieCatalog catalog = new MovieCatalog(1);
+        List<Movie> movies = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            movies.add(new Movie("Movie " + i, Movie.MovieType.values()[i % 3]));
+        }
+
+        catalog.registerAll(movies);
+        catalog.registerAll(movies.subList(0, 10));
+
+        assertEquals(1000, catalog.size());
+        assertSame(movies.get(999), catalog.movie(999));
+        assertEquals(500, catalog.id("Movie 500"));
+    }
+
+    @Test
+    public void shouldHandOutOneIdPerTitleUnderConcurrentRegistration() throws Exception {
+        MovieCatalog catalog = new MovieCatalog(1);
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        Set<Movie> seen = ConcurrentHashMap.newKeySet();
+        List<Future<?>> futures = new ArrayList<>();
+        for (int thread = 0; thread < 8; thread++) {
+            futures.add(pool.submit(() -> {
+                for (int i = 0; i < 2000; i++) {
+                    seen.add(catalog.movie(catalog.register("Movie " + i, REGULAR)));
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        pool.shutdown();
+
+        assertEquals(2000, catalog.size());
+        assertEquals(2000, seen.size());
+    }
+}
@@ -0,0 +1,75 @@
+package example;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static example.Movie.MovieType.*;
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for the OffHeapRentalStore class.
+ */
+public class OffHeapRentalStoreTest {
+
+    private static final List<Rental> RENTALS = List.of(
+            new Rental(new Movie("Rembo", REGULAR), 1),
+            new Rental(new Movie("Lord of the Rings", NEW_RELEASE), 4),
+            new Rental(new Movie("Harry Potter", CHILDRENS), 5),
+            new Rental(new Movie("Rembo", REGULAR), 3));
+
+    @Test
+    public void shouldStoreRentalsThroughCatalogIds() {
+        MovieCatalog catalog = new MovieCatalog();
+        OffHeapRentalStore store = OffHeapRentalStore.of(catalog, RENTALS);
+
+        assertEquals(4, store.size());
+        assertEquals(3, catalog.size());
+        assertEquals("Lord of the Rings", store.title(1));
+        assertEquals(NEW_RELEASE, store.type(1));
+        assertEquals(4, store.daysRented(1));
+        assertEquals(store.titleId(0), store.titleId(3));
+    }
+
+    @Test
+    public void shouldBillCustomerLikeRentalObjects() {
+        Customer onHeap = new Customer("John Doe", RENTALS);
+        Customer offHeap = new Customer("John Doe", OffHeapRentalStore.of(new MovieCatalog(), RENTALS));
+
+        assertEquals(onHeap.statement(), offHeap.statement());
+        assertEquals(onHeap.totals(), offHeap.totals());
+    }
+
+    @Test
+    public void shouldSpanManyChunks() {
+        MovieCatalog catalog = new MovieCatalog();
+        OffHeapRentalStore store = new OffHeapRentalStore(catalog, 3);
+        List<Rental> rentals = new ArrayList<>();
+        for (int i = 0; i < 100; i++)
+            rentals.add(new Rental(new Movie("Movie " + i % 11, Movie.MovieType.values()[i % 11 % 3]), i % 13));
+        rentals.forEach(store::add);
+
+        assertEquals(100, store.size());
+        assertEquals(13 * 8 * OffHeapRentalStore.RECORD_SIZE, store.reservedBytes());
+        for (int i = 0; i < 100; i++) {
+            assertEquals(rentals.get(i).getMovie().getTitle(), store.title(i));
+            assertEquals(rentals.get(i).getDaysRented(), store.daysRented(i));
+        }
+        BillingTotals expected = new Customer("x", rentals).totals();
+        assertEquals(expected.getAmountCents(), store.totalAmountCents(PriceTable.STANDARD));
+        assertEquals(expected.getFrequentRenterPoints(), store.frequentRenterPoints(PriceTable.STANDARD));
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void shouldRejectIndexPastSize() {
+        OffHeapRentalStore store = OffHeapRentalStore.of(new MovieCatalog(), RENTALS);
+
+        store.daysRented(4);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectNegativeTitleId() {
+        new OffHeapRentalStore(new MovieCatalog()).add(-1, REGULAR, 1);
+    }
+}
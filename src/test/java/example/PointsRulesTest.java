@@ -0,0 +1,107 @@
+package example;
+
+import org.junit.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static example.Movie.MovieType.*;
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for the PointsRules class.
+ */
+public class PointsRulesTest {
+
+    private static final LocalDate TODAY = LocalDate.of(2024, 6, 15);
+
+    private static List<Rental> rentals(int count) {
+        List<Rental> rentals = new ArrayList<>();
+        for (int i = 0; i < count; i++)
+            rentals.add(new Rental(new Movie("Movie " + i, Movie.MovieType.values()[i % 3]), 1 + i % 5));
+        return rentals;
+    }
+
+    @Test
+    public void shouldAwardBasePointsWithoutRules() {
+        PointsProgram program = PointsRules.STANDARD.compile(PriceTable.STANDARD, TODAY);
+        Customer customer = new Customer("John Doe", rentals(30));
+
+        assertEquals(1, program.tiers());
+        for (Movie.MovieType type : Movie.MovieType.values()) {
+            for (int days = -1; days <= 100; days++) {
+                assertEquals(PriceTable.STANDARD.frequentRenterPoints(type, days),
+                        program.priceTable(0).frequentRenterPoints(type, days));
+                assertEquals(PriceTable.STANDARD.chargeCents(type, days), program.priceTable(0).chargeCents(type, days));
+            }
+        }
+        assertEquals(customer.statement(), program.customer("John Doe", RentalSource.of(rentals(30))).statement());
+    }
+
+    @Test
+    public void shouldApplyMultipliersAndCapInsideAndBeyondTable() {
+        PriceTable table = PointsRules.STANDARD
+                .withMultiplier(NEW_RELEASE, 250)
+                .withMultiplier(CHILDRENS, 0)
+                .withRentalCap(4)
+                .compile(PriceTable.standard(10), TODAY)
+                .priceTable(0);
+
+        assertEquals(1, table.frequentRenterPoints(REGULAR, 3));
+        assertEquals(2, table.frequentRenterPoints(NEW_RELEASE, 1));
+        assertEquals(4, table.frequentRenterPoints(NEW_RELEASE, 2));
+        assertEquals(4, table.frequentRenterPoints(NEW_RELEASE, 50));
+        assertEquals(0, table.frequentRenterPoints(CHILDRENS, 50));
+        assertEquals(PriceTable.STANDARD.chargeCents(NEW_RELEASE, 50), table.chargeCents(NEW_RELEASE, 50));
+    }
+
+    @Test
+    public void shouldApplyPromotionsOnlyInsideTheirWindow() {
+        PointsRules rules = PointsRules.STANDARD
+                .withPromotion(LocalDate.of(2024, 6, 1), LocalDate.of(2024, 6, 15), CHILDRENS, 2)
+                .withPromotion(LocalDate.of(2024, 6, 10), LocalDate.of(2024, 6, 20), CHILDRENS, 1)
+                .withMultiplier(CHILDRENS, 200);
+
+        assertEquals(2, rules.compile(PriceTable.STANDARD, LocalDate.of(2024, 5, 31)).priceTable(0).frequentRenterPoints(CHILDRENS, 1));
+        assertEquals(6, rules.compile(PriceTable.STANDARD, LocalDate.of(2024, 6, 1)).priceTable(0).frequentRenterPoints(CHILDRENS, 1));
+        assertEquals(8, rules.compile(PriceTable.STANDARD, TODAY).priceTable(0).frequentRenterPoints(CHILDRENS, 1));
+        assertEquals(4, rules.compile(PriceTable.STANDARD, LocalDate.of(2024, 6, 20)).priceTable(0).frequentRenterPoints(CHILDRENS, 1));
+        assertEquals(1, rules.compile(PriceTable.STANDARD, TODAY).priceTable(0).frequentRenterPoints(REGULAR, 1));
+    }
+
+    @Test
+    public void shouldPickTierByNumberOfRentals() {
+        PointsProgram program = PointsRules.STANDARD
+                .withTier(20, 300)
+                .withTier(10, 150)
+                .withTier(20, 200)
+                .compile(PriceTable.STANDARD, TODAY);
+
+        assertEquals(3, program.tiers());
+        assertEquals(0, program.tier(0));
+        assertEquals(0, program.tier(9));
+        assertEquals(1, program.tier(10));
+        assertEquals(2, program.tier(20));
+        assertEquals(2, program.tier(1000));
+
+        List<Rental> rentals = rentals(20);
+        long basePoints = new Customer("Gold", rentals).totals().getFrequentRenterPoints();
+        BillingTotals totals = program.customer("Gold", RentalSource.of(rentals)).totals();
+        assertEquals(2 * basePoints, totals.getFrequentRenterPoints());
+        assertEquals(new Customer("Gold", rentals).totals().getAmountCents(), totals.getAmountCents());
+        assertTrue(program.customer("Gold", RentalSource.of(rentals)).statement()
+                .endsWith("You earned " + 2 * basePoints + " frequent renter points"));
+        // 7 one-point rentals stay at 1, 3 two-point new releases earn 3: rounded per rental
+        assertEquals(16, program.customer("Silver", RentalSource.of(rentals(10))).totals().getFrequentRenterPoints());
+    }
+
+    @Test
+    public void shouldRejectInvalidRules() {
+        assertThrows(IllegalArgumentException.class, () -> PointsRules.STANDARD.withMultiplier(REGULAR, -1));
+        assertThrows(IllegalArgumentException.class, () -> PointsRules.STANDARD.withTier(-1, 100));
+        assertThrows(IllegalArgumentException.class, () -> PointsRules.STANDARD.withRentalCap(-1));
+        assertThrows(IllegalArgumentException.class,
+                () -> PointsRules.STANDARD.withPromotion(TODAY, TODAY.minusDays(1), REGULAR, 1));
+    }
+}
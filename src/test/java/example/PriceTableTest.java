@@ -0,0 +1,85 @@
+package example;
+
+import org.junit.Test;
+
+import java.util.List;
+
+import static example.Movie.MovieType.*;
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for the PriceTable class.
+ */
+public class PriceTableTest {
+
+    private static double switchCharge(Movie.MovieType type, int daysRented) {
+        double thisAmount = 0;
+        switch (type) {
+            case REGULAR -> {
+                thisAmount += 2;
+                if (daysRented > 2)
+                    thisAmount += (daysRented - 2) * 1.5;
+            }
+            case NEW_RELEASE -> thisAmount += daysRented * 3;
+            case CHILDRENS -> {
+                thisAmount += 1.5;
+                if (daysRented > 3)
+                    thisAmount += (daysRented - 3) * 1.5;
+            }
+        }
+        return thisAmount;
+    }
+
+    @Test
+    public void shouldMatchSwitchFormulaInsideAndBeyondTable() {
+        PriceTable table = PriceTable.standard(30);
+
+        for (Movie.MovieType type : Movie.MovieType.values()) {
+            for (int days = -5; days <= 400; days++) {
+                assertEquals(type + " " + days, Money.cents(switchCharge(type, days)), table.chargeCents(type, days));
+                int points = type == NEW_RELEASE && days > 1 ? 2 : 1;
+                assertEquals(type + " " + days, points, table.frequentRenterPoints(type, days));
+            }
+        }
+    }
+
+    @Test
+    public void shouldFallBackToFormulaForNegativeDays() {
+        assertEquals(200, PriceTable.standard(10).chargeCents(REGULAR, -1));
+        assertEquals(-300, PriceTable.standard(10).chargeCents(NEW_RELEASE, -1));
+        assertEquals(150, PriceTable.standard(10).chargeCents(CHILDRENS, -1));
+        assertEquals(1, PriceTable.standard(10).frequentRenterPoints(NEW_RELEASE, -1));
+    }
+
+    @Test
+    public void shouldRebuildWhenRatesChange() {
+        PriceTable standard = PriceTable.STANDARD;
+        PriceTable promo = standard.withPolicy(NEW_RELEASE, new Tariff(0, 0, 200, 1));
+
+        assertEquals(1000, promo.chargeCents(NEW_RELEASE, 5));
+        assertEquals(1500, standard.chargeCents(NEW_RELEASE, 5));
+        assertEquals(650, promo.chargeCents(REGULAR, 5));
+    }
+
+    @Test
+    public void shouldBuildFromTariffMap() {
+        PriceTable table = PriceTable.of(PriceTable.STANDARD.policies(), 5);
+
+        assertEquals(5, table.getMaxDays());
+        assertEquals(54650, table.chargeCents(REGULAR, 365));
+    }
+
+    @Test
+    public void shouldRejectNegativeRange() {
+        assertThrows(IllegalArgumentException.class, () -> PriceTable.standard(-1));
+    }
+
+    @Test
+    public void shouldPriceCustomerStatementWithGivenTable() {
+        PriceTable promo = PriceTable.STANDARD.withPolicy(REGULAR, new Tariff(100, 2, 100, Integer.MAX_VALUE));
+        Customer customer = new Customer("John",
+                RentalSource.of(List.of(new Rental(new Movie("The Matrix", REGULAR), 5))), promo);
+
+        assertTrue(customer.statement().contains("The Matrix\t4.0"));
+    }
+}
@@ -0,0 +1,92 @@
+package example;
+
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static example.Movie.MovieType.*;
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for the PricingRegistry class.
+ */
+public class PricingRegistryTest {
+
+    private static final PricingPolicy FREE_WEEKEND = new PricingPolicy() {
+        @Override
+        public long chargeCents(int daysRented) {
+            return daysRented <= 2 ? 0 : Tariff.NEW_RELEASE.chargeCents(daysRented - 2);
+        }
+
+        @Override
+        public int frequentRenterPoints(int daysRented) {
+            return 3;
+        }
+    };
+
+    @Test
+    public void shouldStartWithStandardTariffs() {
+        PricingRegistry registry = new PricingRegistry();
+
+        assertSame(Tariff.REGULAR, registry.policy(REGULAR));
+        assertEquals(0, registry.version());
+        assertEquals(650, registry.priceTable().chargeCents(REGULAR, 5));
+    }
+
+    @Test
+    public void shouldRebuildPriceTableWhenPolicyIsRegistered() {
+        PricingRegistry registry = new PricingRegistry();
+        PriceTable before = registry.priceTable();
+
+        registry.register(NEW_RELEASE, FREE_WEEKEND);
+
+        assertNotSame(before, registry.priceTable());
+        assertEquals(1, registry.version());
+        assertEquals(0, registry.priceTable().chargeCents(NEW_RELEASE, 2));
+        assertEquals(900, registry.priceTable().chargeCents(NEW_RELEASE, 5));
+        assertEquals(3, registry.priceTable().frequentRenterPoints(NEW_RELEASE, 1));
+        assertEquals(1500, before.chargeCents(NEW_RELEASE, 5));
+    }
+
+    @Test
+    public void shouldFallBackToRegisteredPolicyBeyondTable() {
+        PricingRegistry registry = new PricingRegistry(5);
+
+        registry.register(NEW_RELEASE, FREE_WEEKEND);
+
+        assertEquals(29_400, registry.priceTable().chargeCents(NEW_RELEASE, 100));
+    }
+
+    @Test
+    public void shouldRegisterSeveralPoliciesInOneVersion() {
+        PricingRegistry registry = new PricingRegistry();
+
+        registry.registerAll(Map.of(REGULAR, new Tariff(100, 1, 100, Integer.MAX_VALUE),
+                CHILDRENS, new Tariff(0, 0, 0, Integer.MAX_VALUE)));
+
+        assertEquals(1, registry.version());
+        assertEquals(500, registry.priceTable().chargeCents(REGULAR, 5));
+        assertEquals(0, registry.priceTable().chargeCents(CHILDRENS, 5));
+    }
+
+    @Test
+    public void shouldRejectMissingPolicy() {
+        PricingRegistry registry = new PricingRegistry();
+
+        assertThrows(NullPointerException.class, () -> registry.register(REGULAR, null));
+        assertEquals(0, registry.version());
+    }
+
+    @Test
+    public void shouldPriceStatementsWithRegisteredPolicy() {
+        PricingRegistry registry = new PricingRegistry();
+        registry.register(NEW_RELEASE, FREE_WEEKEND);
+        RentalSource rentals = RentalSource.of(List.of(new Rental(new Movie("Avatar 3", NEW_RELEASE), 2)));
+
+        String statement = new Customer("John", rentals, registry.priceTable()).statement();
+
+        assertTrue(statement.contains("Avatar 3\t0.0"));
+        assertTrue(statement.contains("You earned 3 frequent renter points"));
+    }
+}
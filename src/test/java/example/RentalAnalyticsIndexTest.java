@@ -0,0 +1,107 @@
+package example;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static example.Movie.MovieType.*;
+import static example.RentalAnalyticsIndex.UNBOUNDED;
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for the RentalAnalyticsIndex class.
+ */
+public class RentalAnalyticsIndexTest {
+
+    @Test
+    public void shouldAnswerRangeQueriesLikeAFullScan() {
+        RentalAnalyticsIndex index = new RentalAnalyticsIndex(4, 30, PriceTable.STANDARD);
+        SplittableRandom random = new SplittableRandom(1);
+        int[] segments = new int[10_000];
+        Movie.MovieType[] types = new Movie.MovieType[segments.length];
+        int[] days = new int[segments.length];
+        for (int i = 0; i < segments.length; i++) {
+            segments[i] = random.nextInt(4);
+            types[i] = Movie.MovieType.values()[random.nextInt(3)];
+            days[i] = random.nextInt(45);
+            index.add(segments[i], types[i], days[i]);
+        }
+
+        assertEquals(scan(segments, types, days, -1, NEW_RELEASE, 5, UNBOUNDED), index.totals(NEW_RELEASE, 5, UNBOUNDED));
+        assertEquals(scan(segments, types, days, 2, REGULAR, 3, 7), index.totals(2, REGULAR, 3, 7));
+        assertEquals(scan(segments, types, days, -1, CHILDRENS, 31, UNBOUNDED), index.totals(CHILDRENS, 31, UNBOUNDED));
+        assertEquals(scan(segments, types, days, -1, CHILDRENS, 0, 0), index.totals(CHILDRENS, 0, 0));
+        assertEquals(segments.length, index.totals().getRentals());
+    }
+
+    private static BillingTotals scan(int[] segments, Movie.MovieType[] types, int[] days,
+                                      int segment, Movie.MovieType type, int fromDays, int toDays) {
+        long count = 0;
+        long amount = 0;
+        long points = 0;
+        for (int i = 0; i < days.length; i++) {
+            if ((segment < 0 || segments[i] == segment) && types[i] == type && days[i] >= fromDays && days[i] <= toDays) {
+                count++;
+                amount += PriceTable.STANDARD.chargeCents(type, days[i]);
+                points += PriceTable.STANDARD.frequentRenterPoints(type, days[i]);
+            }
+        }
+        return new BillingTotals(count, amount, points);
+    }
+
+    @Test
+    public void shouldMatchStatementTotalsOfAddedCustomers() {
+        Customer john = new Customer("John Doe", List.of(
+                new Rental(new Movie("Rembo", REGULAR), 1),
+                new Rental(new Movie("Lord of the Rings", NEW_RELEASE), 4),
+                new Rental(new Movie("Harry Potter", CHILDRENS), 5)));
+        Customer jane = new Customer("Jane", List.of(new Rental(new Movie("Rembo", REGULAR), 90)));
+        RentalAnalyticsIndex index = new RentalAnalyticsIndex(2);
+
+        index.add(0, john);
+        index.add(1, jane);
+
+        assertEquals(john.totals(), index.totals(0));
+        assertEquals(jane.totals(), index.totals(1));
+        assertEquals(john.totals().plus(jane.totals()), index.totals());
+    }
+
+    @Test
+    public void shouldRejectRangesFinerThanTheBuckets() {
+        RentalAnalyticsIndex index = new RentalAnalyticsIndex(1, 10, PriceTable.STANDARD);
+
+        assertThrows(IllegalArgumentException.class, () -> index.totals(REGULAR, 3, 20));
+        assertThrows(IllegalArgumentException.class, () -> index.totals(REGULAR, 12, UNBOUNDED));
+        assertThrows(IllegalArgumentException.class, () -> index.totals(REGULAR, 5, 4));
+        assertThrows(IndexOutOfBoundsException.class, () -> index.totals(1, REGULAR, 0, 1));
+        assertThrows(IllegalArgumentException.class, () -> index.add(0, REGULAR, -1));
+    }
+
+    @Test
+    public void shouldNotLoseConcurrentAdditions() throws Exception {
+        RentalAnalyticsIndex index = new RentalAnalyticsIndex(2);
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                int segment = t % 2;
+                futures.add(pool.submit(() -> {
+                    for (int i = 0; i < 10_000; i++)
+                        index.add(segment, NEW_RELEASE, 3);
+                }));
+            }
+            for (Future<?> future : futures)
+                future.get();
+        } finally {
+            pool.shutdown();
+        }
+
+        assertEquals(new BillingTotals(40_000, 40_000 * 900L, 40_000 * 2L), index.totals(NEW_RELEASE, 3, 3));
+        assertEquals(20_000, index.totals(1).getRentals());
+    }
+}
@@ -0,0 +1,160 @@
+package example;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static example.Movie.MovieType.*;
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for the RentalImporter class.
+ */
+public class RentalImporterTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static ReadableByteChannel channel(String text) {
+        return Channels.newChannel(new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private static List<Customer> parse(RentalImporter importer, String text) throws IOException {
+        List<Customer> customers = new ArrayList<>();
+        importer.parse(channel(text), customers::add);
+        return customers;
+    }
+
+    @Test
+    public void shouldGroupConsecutiveRowsByCustomer() throws IOException {
+        List<Customer> customers = parse(RentalImporter.csv(new MovieCatalog()),
+                "customer,title,type,days\n"
+                        + "John Doe,Rembo,REGULAR,1\n"
+                        + "John Doe,Lord of the Rings,NEW_RELEASE,4\n"
+                        + "John Doe,Harry Potter,CHILDRENS,5\n"
+                        + "Jane,Rembo,REGULAR,3\n");
+
+        assertEquals(2, customers.size());
+        assertEquals(new Customer("John Doe", List.of(
+                new Rental(new Movie("Rembo", REGULAR), 1),
+                new Rental(new Movie("Lord of the Rings", NEW_RELEASE), 4),
+                new Rental(new Movie("Harry Potter", CHILDRENS), 5))).statement(), customers.get(0).statement());
+        assertEquals("Jane", customers.get(1).getName());
+        assertEquals(1, customers.get(1).totals().getRentals());
+    }
+
+    @Test
+    public void shouldResolveMoviesThroughSharedCatalog() throws IOException {
+        MovieCatalog catalog = new MovieCatalog();
+        parse(RentalImporter.tsv(catalog), "customer\ttitle\ttype\tdays\nA\tRembo\tREGULAR\t1\nB\tRembo\tREGULAR\t2\n");
+
+        assertEquals(1, catalog.size());
+        assertEquals(REGULAR, catalog.movie("Rembo").getPriceCode());
+    }
+
+    @Test
+    public void shouldHandleQuotedFieldsCrlfAndBlankLines() throws IOException {
+        List<Customer> customers = parse(new RentalImporter(new MovieCatalog(), ',', false),
+                "\"Doe, John\",\"The \"\"Best\"\" Movie\",REGULAR,2\r\n\r\n\"Doe, John\",Rembo,REGULAR,3");
+
+        assertEquals(1, customers.size());
+        assertEquals("Doe, John", customers.get(0).getName());
+        assertEquals("The \"Best\" Movie", customers.get(0).rentals().title(0));
+        assertEquals(2, customers.get(0).rentals().size());
+    }
+
+    @Test
+    public void shouldReadLinesLongerThanTheBuffer() throws IOException {
+        StringBuilder csv = new StringBuilder();
+        String longTitle = "x".repeat(100);
+        for (int i = 0; i < 50; i++)
+            csv.append("C").append(i / 5).append(',').append(longTitle).append(i).append(",REGULAR,").append(i % 9).append('\n');
+        List<Customer> customers = new ArrayList<>();
+
+        long rows = new RentalImporter(new MovieCatalog(), ',', false, 16).parse(channel(csv.toString()), customers::add);
+
+        assertEquals(50, rows);
+        assertEquals(10, customers.size());
+        assertEquals(longTitle + 49, customers.get(9).rentals().title(4));
+    }
+
+    @Test
+    public void shouldReportLineOfMalformedInput() {
+        RentalImporter importer = RentalImporter.csv(new MovieCatalog());
+
+        assertMalformed(importer, "customer,title,type,days\nA,Rembo,REGULAR,1\nA,Rembo,REGULAR\n", "Line 3: expected 4 fields");
+        assertMalformed(importer, "h\nA,Rembo,DOCUMENTARY,1\n", "Line 2: unknown movie type DOCUMENTARY");
+        assertMalformed(importer, "h\nA,Rembo,REGULAR,-1\n", "Line 2: bad days rented -1");
+        assertMalformed(importer, "h\nA,Rembo,REGULAR,1\nB,Rembo,CHILDRENS,1\n", "Line 3: Rembo is already registered as REGULAR");
+    }
+
+    private static void assertMalformed(RentalImporter importer, String text, String message) {
+        try {
+            parse(importer, text);
+            fail("Expected " + message);
+        } catch (IOException e) {
+            assertEquals(message, e.getMessage());
+        }
+    }
+
+    @Test
+    public void shouldBillImportedFileThroughEngine() throws Exception {
+        Path file = folder.newFile("rentals.csv").toPath();
+        StringBuilder csv = new StringBuilder("customer,title,type,days\n");
+        for (int i = 0; i < 3_000; i++)
+            csv.append("Customer ").append(i / 3).append(",Movie ").append(i % 17).append(",REGULAR,").append(i % 6).append('\n');
+        Files.writeString(file, csv);
+        List<String> statements = new ArrayList<>();
+
+        BillingReport report = RentalImporter.csv(new MovieCatalog())
+                .run(file, new BillingEngine(new ForkJoinPool(2), 8, true), (customer, statement) -> statements.add(statement));
+
+        assertEquals(1_000, report.getStatements());
+        assertEquals(1_000, statements.size());
+        assertTrue(statements.get(999).startsWith("Rental Record for Customer 999\n"));
+    }
+
+    @Test
+    public void shouldPropagateParseFailureFromPipeline() throws Exception {
+        StringBuilder csv = new StringBuilder();
+        for (int i = 0; i < 10_000; i++)
+            csv.append(i).append(",Rembo,REGULAR,1\n");
+        csv.append("broken\n");
+
+        try {
+            new RentalImporter(new MovieCatalog(), ',', false)
+                    .run(channel(csv.toString()), new BillingEngine(true), (customer, statement) -> { });
+            fail("Expected parse failure");
+        } catch (IOException e) {
+            assertEquals("Line 10001: expected 4 fields", e.getMessage());
+        }
+    }
+
+    @Test
+    public void shouldStopParserWhenBillingFails() throws Exception {
+        StringBuilder csv = new StringBuilder();
+        for (int i = 0; i < 100_000; i++)
+            csv.append(i).append(",Rembo,REGULAR,1\n");
+
+        try {
+            new RentalImporter(new MovieCatalog(), ',', false).run(channel(csv.toString()), new BillingEngine(true),
+                    (customer, statement) -> {
+                        throw new IllegalStateException("sink failed");
+                    });
+            fail("Expected sink failure");
+        } catch (IllegalStateException e) {
+            assertEquals("sink failed", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package example;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static example.Movie.MovieType.*;
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for the RentalLedger class.
+ */
+public class RentalLedgerTest {
+
+    @Test
+    public void shouldStoreRentalColumns() {
+        RentalLedger ledger = new RentalLedger();
+        ledger.add("The Matrix", REGULAR, 3);
+        ledger.add("Avatar 3", NEW_RELEASE, 2);
+
+        assertEquals(2, ledger.size());
+        assertEquals("Avatar 3", ledger.title(1));
+        assertEquals(NEW_RELEASE, ledger.type(1));
+        assertEquals(3, ledger.daysRented(0));
+    }
+
+    @Test
+    public void shouldDeduplicateTitles() {
+        RentalLedger ledger = new RentalLedger();
+        ledger.add("The Matrix", REGULAR, 1);
+        ledger.add("Avatar 3", NEW_RELEASE, 2);
+        ledger.add("The Matrix", REGULAR, 5);
+
+        assertEquals(2, ledger.distinctTitles());
+        assertSame(ledger.title(0), ledger.title(2));
+    }
+
+    @Test
+    public void shouldGrowBeyondInitialCapacity() {
+        RentalLedger ledger = new RentalLedger(1);
+        for (int i = 0; i < 1000; i++) {
+            ledger.add("Movie " + (i % 10), CHILDRENS, i);
+        }
+
+        assertEquals(1000, ledger.size());
+        assertEquals(999, ledger.daysRented(999));
+        assertEquals(10, ledger.distinctTitles());
+    }
+
+    @Test
+    public void shouldTotalAmountAndPoints() {
+        RentalLedger ledger = new RentalLedger();
+        ledger.add("The Matrix", REGULAR, 3);     // 3.5, 1 point
+        ledger.add("Avatar 3", NEW_RELEASE, 2);   // 6.0, 2 points
+        ledger.add("Finding Nemo", CHILDRENS, 4); // 3.0, 1 point
+
+        assertEquals(1250, ledger.totalAmountCents());
+        assertEquals(4, ledger.frequentRenterPoints());
+    }
+
+    @Test
+    public void shouldBackCustomerWithSameStatementAsRentalList() {
+        List<Rental> rentals = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            rentals.add(new Rental(new Movie("Movie " + (i % 7), Movie.MovieType.values()[i % 3]), i % 6));
+        }
+
+        Customer fromList = new Customer("John", rentals);
+        Customer fromLedger = new Customer("John", RentalLedger.of(rentals));
+
+        assertEquals(fromList.statement(), fromLedger.statement());
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void shouldRejectIndexBeyondSize() {
+        RentalLedger ledger = new RentalLedger(16);
+        ledger.add("The Matrix", REGULAR, 3);
+
+        ledger.daysRented(1);
+    }
+}
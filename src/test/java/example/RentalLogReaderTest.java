@@ -0,0 +1,113 @@
+package example;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static example.Movie.MovieType.*;
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for the RentalLogReader class.
+ */
+public class RentalLogReaderTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private Path writeLog(int customers, int rentalsPerCustomer) throws IOException {
+        Path file = folder.newFile().toPath();
+        try (RentalLogWriter writer = new RentalLogWriter(file)) {
+            for (int customer = 0; customer < customers; customer++) {
+                for (int i = 0; i < rentalsPerCustomer; i++) {
+                    writer.write(customer, i, Movie.MovieType.values()[i % 3], i % 6);
+                }
+            }
+        }
+        return file;
+    }
+
+    @Test
+    public void shouldReadRecordsBack() throws IOException {
+        Path file = writeLog(2, 3);
+
+        try (RentalLogReader reader = new RentalLogReader(file)) {
+            assertEquals(6, reader.getRecords());
+            assertEquals(1, reader.customerId(4));
+            assertEquals(1, reader.titleId(4));
+            assertEquals(NEW_RELEASE, reader.type(4));
+            assertEquals(1, reader.daysRented(4));
+        }
+    }
+
+    @Test
+    public void shouldBillEachCustomerLikeStatement() throws IOException {
+        Path file = writeLog(3, 10);
+        List<Rental> rentals = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            rentals.add(new Rental(new Movie("Movie " + i, Movie.MovieType.values()[i % 3]), i % 6));
+        }
+        RentalLedger expected = RentalLedger.of(rentals);
+        List<long[]> totals = new ArrayList<>();
+
+        try (RentalLogReader reader = new RentalLogReader(file)) {
+            reader.bill(PriceTable.STANDARD, (customerId, count, amountCents, points) ->
+                    totals.add(new long[] {customerId, count, amountCents, points}));
+        }
+
+        assertEquals(3, totals.size());
+        for (int customer = 0; customer < 3; customer++) {
+            assertArrayEquals(new long[] {customer, 10, expected.totalAmountCents(), expected.frequentRenterPoints()},
+                    totals.get(customer));
+        }
+    }
+
+    @Test
+    public void shouldReadAcrossMappedSegments() throws IOException {
+        Path file = writeLog(7, 13);
+        List<Long> amounts = new ArrayList<>();
+        List<Long> segmentedAmounts = new ArrayList<>();
+
+        try (RentalLogReader whole = new RentalLogReader(file);
+             RentalLogReader segmented = new RentalLogReader(file, 3)) {
+            whole.bill(PriceTable.STANDARD, (customerId, count, amountCents, points) -> amounts.add(amountCents));
+            segmented.bill(PriceTable.STANDARD, (customerId, count, amountCents, points) -> segmentedAmounts.add(amountCents));
+            assertEquals(whole.daysRented(90), segmented.daysRented(90));
+            assertEquals(whole.type(90), segmented.type(90));
+        }
+
+        assertEquals(7, segmentedAmounts.size());
+        assertEquals(amounts, segmentedAmounts);
+    }
+
+    @Test
+    public void shouldBillEmptyLog() throws IOException {
+        Path file = writeLog(0, 0);
+
+        try (RentalLogReader reader = new RentalLogReader(file)) {
+            reader.bill(PriceTable.STANDARD, (customerId, count, amountCents, points) -> fail());
+            assertEquals(0, reader.getRecords());
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void shouldRejectFileWithoutHeader() throws IOException {
+        Path file = folder.newFile().toPath();
+        Files.write(file, new byte[RentalLogWriter.HEADER_SIZE + RentalLogWriter.RECORD_SIZE]);
+
+        new RentalLogReader(file).close();
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void shouldRejectRecordBeyondEnd() throws IOException {
+        try (RentalLogReader reader = new RentalLogReader(writeLog(1, 1))) {
+            reader.daysRented(1);
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package example;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static example.Movie.MovieType.*;
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for the RentalLogWriter class.
+ */
+public class RentalLogWriterTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void shouldWriteHeaderAndFixedWidthRecords() throws IOException {
+        Path file = folder.newFile("rentals.log").toPath();
+
+        try (RentalLogWriter writer = new RentalLogWriter(file)) {
+            writer.write(7, 3, NEW_RELEASE, 5);
+            writer.write(7, 4, REGULAR, 2);
+            assertEquals(2, writer.getRecords());
+        }
+
+        ByteBuffer bytes = ByteBuffer.wrap(Files.readAllBytes(file)).order(ByteOrder.LITTLE_ENDIAN);
+        assertEquals(RentalLogWriter.HEADER_SIZE + 2 * RentalLogWriter.RECORD_SIZE, bytes.limit());
+        assertEquals(RentalLogWriter.MAGIC, bytes.getInt(0));
+        assertEquals(7, bytes.getInt(8));
+        assertEquals(3, bytes.getInt(12));
+        assertEquals(5, bytes.getInt(16));
+        assertEquals(NEW_RELEASE.ordinal(), bytes.get(20));
+    }
+
+    @Test
+    public void shouldWriteMoreRecordsThanFitInBuffer() throws IOException {
+        Path file = folder.newFile("rentals.log").toPath();
+
+        try (RentalLogWriter writer = new RentalLogWriter(file)) {
+            for (int i = 0; i < 100_000; i++) {
+                writer.write(i / 10, i, CHILDRENS, i % 7);
+            }
+        }
+
+        assertEquals(RentalLogWriter.HEADER_SIZE + 100_000L * RentalLogWriter.RECORD_SIZE, Files.size(file));
+    }
+}
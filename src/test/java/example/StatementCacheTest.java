@@ -0,0 +1,159 @@
+package example;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static example.Movie.MovieType.*;
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for the StatementCache class.
+ */
+public class StatementCacheTest {
+
+    private static Customer customer(String name, int days) {
+        return new Customer(name, List.of(
+                new Rental(new Movie("Rembo", REGULAR), days),
+                new Rental(new Movie("Lord of the Rings", NEW_RELEASE), 4)));
+    }
+
+    @Test
+    public void shouldServeCachedStatementForSameRentals() {
+        StatementCache cache = new StatementCache(100, 1 << 20);
+
+        String first = cache.statement(customer("John", 3));
+        String second = cache.statement(customer("John", 3));
+
+        assertEquals(customer("John", 3).statement(), first);
+        assertSame(first, second);
+        assertEquals(1, cache.stats().getHits());
+        assertEquals(1, cache.stats().getMisses());
+    }
+
+    @Test
+    public void shouldNotConfuseTitlesWithEqualStringHashCodes() {
+        StatementCache cache = new StatementCache(100, 1 << 20);
+        Customer aa = new Customer("John", List.of(new Rental(new Movie("Aa", REGULAR), 3)));
+        Customer bb = new Customer("John", List.of(new Rental(new Movie("BB", REGULAR), 3)));
+        assertEquals("Aa".hashCode(), "BB".hashCode());
+
+        assertEquals(aa.statement(), cache.statement(aa));
+        assertEquals(bb.statement(), cache.statement(bb));
+        assertEquals(2, cache.stats().getMisses());
+    }
+
+    @Test
+    public void shouldRenderAgainWhenRentalsChange() {
+        StatementCache cache = new StatementCache(100, 1 << 20);
+        cache.statement(customer("John", 3));
+
+        String changed = cache.statement(customer("John", 5));
+
+        assertEquals(customer("John", 5).statement(), changed);
+        assertEquals(0, cache.stats().getHits());
+        assertEquals(2, cache.stats().getEntries());
+    }
+
+    @Test
+    public void shouldNotShareStatementsBetweenCustomersWithSameRentals() {
+        StatementCache cache = new StatementCache(100, 1 << 20);
+        cache.statement(customer("John", 3));
+
+        assertTrue(cache.statement(customer("Jane", 3)).startsWith("Rental Record for Jane\n"));
+    }
+
+    @Test
+    public void shouldMissWhenCustomerIsPricedWithDifferentTable() {
+        StatementCache cache = new StatementCache(100, 1 << 20);
+        PricingRegistry registry = new PricingRegistry();
+        RentalSource rentals = RentalSource.of(List.of(new Rental(new Movie("Rembo", REGULAR), 3)));
+        cache.statement(new Customer("John", rentals, registry.priceTable()));
+
+        registry.register(REGULAR, new Tariff(500, 2, 150, Integer.MAX_VALUE));
+        String repriced = cache.statement(new Customer("John", rentals, registry.priceTable()));
+
+        assertEquals("Rental Record for John\n\tRembo\t6.5\nAmount owed is 6.5\nYou earned 1 frequent renter points", repriced);
+        assertEquals(0, cache.stats().getHits());
+        assertEquals(1, cache.stats().getEntries());
+    }
+
+    @Test
+    public void shouldEvictLeastRecentlyUsedEntryWhenFull() {
+        StatementCache cache = new StatementCache(2, 1 << 20, 1);
+        cache.statement(customer("A", 1));
+        cache.statement(customer("B", 1));
+        cache.statement(customer("A", 1));
+
+        cache.statement(customer("C", 1));
+        cache.statement(customer("A", 1));
+        cache.statement(customer("B", 1));
+
+        StatementCache.Stats stats = cache.stats();
+        assertEquals(2, stats.getHits());
+        assertEquals(4, stats.getMisses());
+        assertEquals(2, stats.getEvictions());
+        assertEquals(2, stats.getEntries());
+    }
+
+    @Test
+    public void shouldEvictToStayWithinByteBudget() {
+        long oneEntry = StatementCache.sizeOf(customer("A", 1).statement());
+        StatementCache cache = new StatementCache(100, oneEntry * 2 + 1, 1);
+
+        for (String name : new String[] {"A", "B", "C", "D"})
+            cache.statement(customer(name, 1));
+
+        StatementCache.Stats stats = cache.stats();
+        assertEquals(2, stats.getEntries());
+        assertEquals(2, stats.getEvictions());
+        assertTrue(stats.getBytes() <= oneEntry * 2 + 1);
+    }
+
+    @Test
+    public void shouldDropEntriesOnInvalidate() {
+        StatementCache cache = new StatementCache(100, 1 << 20);
+        cache.statement(customer("A", 1));
+        cache.statement(customer("B", 1));
+
+        cache.invalidate(customer("A", 1));
+        assertEquals(1, cache.stats().getEntries());
+
+        cache.invalidateAll();
+        assertEquals(0, cache.stats().getEntries());
+        assertEquals(0, cache.stats().getBytes());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectSegmentCountThatIsNotPowerOfTwo() {
+        new StatementCache(100, 1 << 20, 3);
+    }
+
+    @Test
+    public void shouldServeConsistentStatementsUnderConcurrentAccess() throws Exception {
+        StatementCache cache = new StatementCache(64, 1 << 20, 4);
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                futures.add(pool.submit(() -> {
+                    for (int i = 0; i < 2_000; i++) {
+                        Customer customer = customer("C" + (i % 100), i % 7 + 1);
+                        assertEquals(customer.statement(), cache.statement(customer));
+                    }
+                }));
+            }
+            for (Future<?> future : futures)
+                future.get();
+        } finally {
+            pool.shutdown();
+        }
+        StatementCache.Stats stats = cache.stats();
+        assertEquals(8_000, stats.getHits() + stats.getMisses());
+        assertTrue(stats.getEntries() <= 64);
+    }
+}
@@ -0,0 +1,132 @@
+package example;
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static example.Movie.MovieType.*;
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for the StatementEncoder implementations.
+ */
+public class StatementEncoderTest {
+
+    private static final Customer JOHN = new Customer("John Doe", List.of(
+            new Rental(new Movie("Rembo", REGULAR), 1),
+            new Rental(new Movie("Lord of the Rings", NEW_RELEASE), 4),
+            new Rental(new Movie("Harry Potter", CHILDRENS), 5)));
+
+    private static String encode(StatementEncoder encoder, Customer customer) {
+        ByteBuffer buffer = ByteBuffer.allocate(1 << 20);
+        encoder.encode(customer, buffer);
+        return new String(buffer.array(), 0, buffer.position(), StandardCharsets.UTF_8);
+    }
+
+    @Test
+    public void shouldEncodeTextIdenticalToStatement() {
+        Customer customer = new Customer("Zoë", List.of(new Rental(new Movie("Amélie 🎬 東京", REGULAR), 3)));
+
+        assertEquals(JOHN.statement(), encode(StatementEncoder.TEXT, JOHN));
+        assertEquals(customer.statement(), encode(StatementEncoder.TEXT, customer));
+    }
+
+    @Test
+    public void shouldEncodeJson() {
+        Customer customer = new Customer("A \"quoted\"\tname\\", List.of(new Rental(new Movie("Rembo\u0001", REGULAR), 3)));
+
+        assertEquals("{\"customer\":\"John Doe\",\"rentals\":["
+                + "{\"title\":\"Rembo\",\"type\":\"REGULAR\",\"daysRented\":1,\"amountCents\":200,\"frequentRenterPoints\":1},"
+                + "{\"title\":\"Lord of the Rings\",\"type\":\"NEW_RELEASE\",\"daysRented\":4,\"amountCents\":1200,\"frequentRenterPoints\":2},"
+                + "{\"title\":\"Harry Potter\",\"type\":\"CHILDRENS\",\"daysRented\":5,\"amountCents\":450,\"frequentRenterPoints\":1}"
+                + "],\"amountCents\":1850,\"frequentRenterPoints\":4}", encode(StatementEncoder.JSON, JOHN));
+        assertEquals("{\"customer\":\"A \\\"quoted\\\"\\tname\\\\\",\"rentals\":["
+                + "{\"title\":\"Rembo\\u0001\",\"type\":\"REGULAR\",\"daysRented\":3,\"amountCents\":350,\"frequentRenterPoints\":1}"
+                + "],\"amountCents\":350,\"frequentRenterPoints\":1}", encode(StatementEncoder.JSON, customer));
+    }
+
+    @Test
+    public void shouldRoundTripBinaryEncodingToText() throws IOException {
+        Customer customer = new Customer("Zoë", List.of(new Rental(new Movie("Amélie 🎬 東京", NEW_RELEASE), 30)));
+        ByteBuffer buffer = ByteBuffer.allocate(1024);
+
+        StatementEncoder.BINARY.encode(JOHN, buffer);
+        StatementEncoder.BINARY.encode(customer, buffer);
+        buffer.flip();
+
+        assertEquals(JOHN.statement(), BinaryStatementEncoder.toText(buffer));
+        assertEquals(customer.statement(), BinaryStatementEncoder.toText(buffer));
+        assertFalse(buffer.hasRemaining());
+    }
+
+    @Test
+    public void shouldRoundTripBinaryTitlesEndingInLoneHighSurrogate() throws IOException {
+        Customer customer = new Customer("Zoë\uD83C", List.of(
+                new Rental(new Movie("Broken \uD83C", CHILDRENS), 4),
+                new Rental(new Movie("\uDFAC after", REGULAR), 2)));
+        ByteBuffer buffer = ByteBuffer.allocate(1024);
+
+        StatementEncoder.BINARY.encode(customer, buffer);
+        buffer.flip();
+
+        assertEquals(customer.statement().replace('\uD83C', '?').replace('\uDFAC', '?'), BinaryStatementEncoder.toText(buffer));
+        assertFalse(buffer.hasRemaining());
+    }
+
+    @Test
+    public void shouldEncodeBinaryMoreCompactlyThanText() {
+        ByteBuffer binary = ByteBuffer.allocate(1024);
+        ByteBuffer text = ByteBuffer.allocate(1024);
+
+        StatementEncoder.BINARY.encode(JOHN, binary);
+        StatementEncoder.TEXT.encode(JOHN, text);
+
+        assertTrue(binary.position() < text.position());
+    }
+
+    @Test
+    public void shouldStreamLargeStatementsToChannelThroughSmallBuffer() throws IOException {
+        List<Rental> rentals = new ArrayList<>();
+        for (int i = 0; i < 1_000; i++)
+            rentals.add(new Rental(new Movie("Movie ✓ " + i, Movie.MovieType.values()[i % 3]), i % 10));
+        Customer customer = new Customer("Big", rentals);
+
+        for (StatementEncoder encoder : List.of(StatementEncoder.TEXT, StatementEncoder.JSON, StatementEncoder.BINARY)) {
+            ByteArrayOutputStream streamed = new ByteArrayOutputStream();
+            encoder.encode(customer, Channels.newChannel(streamed), ByteBuffer.allocate(16));
+
+            assertEquals(encode(encoder, customer), streamed.toString(StandardCharsets.UTF_8));
+        }
+    }
+
+    @Test(expected = BufferOverflowException.class)
+    public void shouldThrowWhenBufferIsTooSmall() {
+        StatementEncoder.JSON.encode(JOHN, ByteBuffer.allocate(32));
+    }
+
+    @Test
+    public void shouldComputeUtf8Length() {
+        for (String text : List.of("", "abc", "Zoë", "東京", "🎬", "lone \uD83C", "\uDFAC lone"))
+            assertEquals(text, text.getBytes(StandardCharsets.UTF_8).length, StatementOutput.utf8Length(text));
+    }
+
+    @Test
+    public void shouldWriteDecimalsLikeLongToString() throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(256);
+        StatementOutput out = StatementOutput.of(buffer);
+        StringBuilder expected = new StringBuilder();
+        for (long value : new long[] {0, 7, 10, -42, 1_000_000_007L, Long.MAX_VALUE, Long.MIN_VALUE}) {
+            out.putDecimal(value).append(' ');
+            expected.append(value).append(' ');
+        }
+
+        assertEquals(expected.toString(), new String(buffer.array(), 0, buffer.position(), StandardCharsets.US_ASCII));
+    }
+}
@@ -0,0 +1,93 @@
+package example;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static example.Movie.MovieType.*;
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for the StatementRenderer class.
+ */
+public class StatementRendererTest {
+
+    private static Customer customer(String name, int rentals) {
+        List<Rental> list = new ArrayList<>();
+        for (int i = 0; i < rentals; i++) {
+            list.add(new Rental(new Movie("Movie " + i, Movie.MovieType.values()[i % 3]), i % 8));
+        }
+        return new Customer(name, list);
+    }
+
+    @Test
+    public void shouldRenderSameTextAsStatement() {
+        Customer customer = customer("John", 50);
+
+        assertEquals(customer.statement(), StatementRenderer.perThread().render(customer));
+        assertEquals(customer.statement(), StatementRenderer.pooled(2).render(customer));
+    }
+
+    @Test
+    public void shouldReuseThreadBuffer() {
+        StatementRenderer renderer = StatementRenderer.perThread();
+        renderer.render(customer("John", 5));
+
+        StringBuilder buffer = renderer.acquire();
+
+        assertSame(buffer, renderer.acquire());
+        assertEquals(0, buffer.length());
+    }
+
+    @Test
+    public void shouldNotLeakPreviousStatementIntoNext() {
+        StatementRenderer renderer = StatementRenderer.perThread();
+        Customer big = customer("Big", 100);
+        Customer small = customer("Small", 1);
+
+        renderer.render(big);
+
+        assertEquals(small.statement(), renderer.render(small));
+    }
+
+    @Test
+    public void shouldReturnBuffersToPool() {
+        StatementRenderer renderer = StatementRenderer.pooled(1);
+        renderer.render(customer("John", 5));
+
+        StringBuilder pooled = renderer.acquire();
+        renderer.release(pooled);
+
+        assertSame(pooled, renderer.acquire());
+    }
+
+    @Test
+    public void shouldDropOversizedBuffers() {
+        StatementRenderer renderer = StatementRenderer.pooled(1);
+        Customer huge = new Customer("Huge", List.of(new Rental(
+                new Movie("x".repeat(StatementRenderer.MAX_RETAINED_CAPACITY + 1), REGULAR), 1)));
+
+        renderer.render(huge);
+
+        assertTrue(renderer.acquire().capacity() <= StatementRenderer.MAX_RETAINED_CAPACITY);
+    }
+
+    @Test
+    public void shouldRenderConcurrentlyFromSharedPool() throws Exception {
+        StatementRenderer renderer = StatementRenderer.pooled(4);
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        List<Future<Boolean>> results = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            Customer customer = customer("Customer " + i, i % 20);
+            results.add(pool.submit(() -> renderer.render(customer).equals(customer.statement())));
+        }
+        for (Future<Boolean> result : results) {
+            assertTrue(result.get());
+        }
+        pool.shutdown();
+    }
+}
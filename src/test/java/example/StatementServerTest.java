@@ -0,0 +1,163 @@
+package example;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static example.Movie.MovieType.*;
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for the StatementServer class.
+ */
+public class StatementServerTest {
+
+    private static final List<Customer> CUSTOMERS = List.of(
+            new Customer("John Doe", List.of(
+                    new Rental(new Movie("Rembo", REGULAR), 1),
+                    new Rental(new Movie("Lord of the Rings", NEW_RELEASE), 4),
+                    new Rental(new Movie("Harry Potter", CHILDRENS), 5))),
+            new Customer("Jane", List.of(new Rental(new Movie("Rembo", REGULAR), 3))));
+
+    private final HttpClient client = HttpClient.newHttpClient();
+    private ExecutorService executor;
+    private StatementServer server;
+
+    @Before
+    public void setUp() throws IOException {
+        executor = Executors.newFixedThreadPool(4);
+        server = new StatementServer(new InetSocketAddress("127.0.0.1", 0),
+                id -> id < CUSTOMERS.size() ? CUSTOMERS.get(id) : null, executor);
+        server.start();
+    }
+
+    @After
+    public void tearDown() {
+        server.close();
+        executor.shutdownNow();
+    }
+
+    private HttpResponse<String> get(String path) throws Exception {
+        return client.send(HttpRequest.newBuilder(uri(path)).build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private HttpResponse<String> post(String path, String contentType, String body) throws Exception {
+        return client.send(HttpRequest.newBuilder(uri(path)).header("Content-Type", contentType)
+                .POST(HttpRequest.BodyPublishers.ofString(body)).build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://127.0.0.1:" + server.getPort() + path);
+    }
+
+    @Test
+    public void shouldServeStatementById() throws Exception {
+        HttpResponse<String> response = get("/statements/0");
+
+        assertEquals(200, response.statusCode());
+        assertEquals(CUSTOMERS.get(0).statement(), response.body());
+        assertEquals("text/plain; charset=utf-8", response.headers().firstValue("Content-Type").orElse(null));
+    }
+
+    @Test
+    public void shouldBatchSeveralCustomersInOneResponse() throws Exception {
+        assertEquals(CUSTOMERS.get(1).statement() + "\n\n" + CUSTOMERS.get(0).statement(), get("/statements/1,0").body());
+
+        String json = get("/statements/0,1?format=json").body();
+        assertTrue(json.startsWith("[{\"customer\":\"John Doe\""));
+        assertTrue(json.contains("},{\"customer\":\"Jane\""));
+        assertTrue(json.endsWith("}]"));
+    }
+
+    @Test
+    public void shouldServeBinaryStatements() throws Exception {
+        HttpResponse<byte[]> response = client.send(HttpRequest.newBuilder(uri("/statements/0,1?format=binary")).build(),
+                HttpResponse.BodyHandlers.ofByteArray());
+        ByteBuffer body = ByteBuffer.wrap(response.body());
+
+        assertEquals(CUSTOMERS.get(0).statement(), BinaryStatementEncoder.toText(body));
+        assertEquals(CUSTOMERS.get(1).statement(), BinaryStatementEncoder.toText(body));
+    }
+
+    @Test
+    public void shouldRejectUnknownCustomersAndFormats() throws Exception {
+        assertEquals(404, get("/statements/0,7").statusCode());
+        assertEquals(404, get("/statements/abc").statusCode());
+        assertEquals(400, get("/statements/0?format=xml").statusCode());
+        assertEquals(404, get("/other").statusCode());
+    }
+
+    @Test
+    public void shouldStatePostedRentals() throws Exception {
+        HttpResponse<String> csv = post("/statements", "text/csv",
+                "John Doe,Rembo,REGULAR,1\nJohn Doe,Lord of the Rings,NEW_RELEASE,4\nJohn Doe,Harry Potter,CHILDRENS,5\nJane,Rembo,REGULAR,3\n");
+        HttpResponse<String> tsv = post("/statements", "text/tab-separated-values", "Jane\tRembo\tREGULAR\t3\n");
+
+        assertEquals(200, csv.statusCode());
+        assertEquals(CUSTOMERS.get(0).statement() + "\n\n" + CUSTOMERS.get(1).statement(), csv.body());
+        assertEquals(CUSTOMERS.get(1).statement(), tsv.body());
+    }
+
+    @Test
+    public void shouldRejectMalformedPostedRentals() throws Exception {
+        HttpResponse<String> response = post("/statements", "text/csv", "John Doe,Rembo,REGULAR\n");
+
+        assertEquals(400, response.statusCode());
+        assertEquals("Line 1: expected 4 fields\n", response.body());
+        assertEquals(400, post("/statements", "text/csv", "Jane,Rembo,REGULAR,3\nJoe,Rembo,NEW_RELEASE,1\n").statusCode());
+    }
+
+    @Test
+    public void shouldAbortResponseOnErrorAfterFirstStatement() throws Exception {
+        for (String format : List.of("text", "json")) {
+            try {
+                HttpResponse<String> response = post("/statements?format=" + format, "text/csv",
+                        "a,T,REGULAR,1\nb,U,REGULAR,1\nc,V,BOGUS,1\n");
+                fail("Expected a cut off response, got " + response.statusCode() + " " + response.body());
+            } catch (IOException expected) {
+                // the connection was closed before the last chunk
+            }
+        }
+        assertEquals(200, post("/statements", "text/csv", "Jane,Rembo,REGULAR,3\n").statusCode());
+    }
+
+    @Test
+    public void shouldResolvePostedTitlesPerRequest() throws Exception {
+        Customer asNewRelease = new Customer("Joe", List.of(new Rental(new Movie("Rembo", NEW_RELEASE), 3)));
+
+        assertEquals(200, post("/statements", "text/csv", "Jane,Rembo,REGULAR,3\n").statusCode());
+        HttpResponse<String> response = post("/statements", "text/csv", "Joe,Rembo,NEW_RELEASE,3\n");
+
+        assertEquals(200, response.statusCode());
+        assertEquals(asNewRelease.statement(), response.body());
+    }
+
+    @Test
+    public void shouldServeConcurrentClients() throws Exception {
+        ExecutorService clients = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<String>> bodies = new ArrayList<>();
+            for (int i = 0; i < 200; i++) {
+                int id = i % 2;
+                bodies.add(clients.submit(() -> get("/statements/" + id).body()));
+            }
+            for (int i = 0; i < bodies.size(); i++)
+                assertEquals(CUSTOMERS.get(i % 2).statement(), bodies.get(i).get());
+        } finally {
+            clients.shutdown();
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package example;
+
+import org.junit.Test;
+
+import static example.Movie.MovieType.*;
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for the Tariff class.
+ */
+public class TariffTest {
+
+    @Test
+    public void shouldChargeBaseWithinIncludedDays() {
+        assertEquals(200, Tariff.REGULAR.chargeCents(2));
+        assertEquals(150, Tariff.CHILDRENS.chargeCents(3));
+    }
+
+    @Test
+    public void shouldChargeExtraDaysBeyondIncludedDays() {
+        assertEquals(650, Tariff.REGULAR.chargeCents(5));
+        assertEquals(1500, Tariff.NEW_RELEASE.chargeCents(5));
+        assertEquals(450, Tariff.CHILDRENS.chargeCents(5));
+    }
+
+    @Test
+    public void shouldAwardBonusPointAfterThreshold() {
+        assertEquals(1, Tariff.NEW_RELEASE.frequentRenterPoints(1));
+        assertEquals(2, Tariff.NEW_RELEASE.frequentRenterPoints(2));
+        assertEquals(1, Tariff.REGULAR.frequentRenterPoints(365));
+    }
+
+    @Test
+    public void shouldReturnStandardTariffPerMovieType() {
+        assertSame(Tariff.REGULAR, Tariff.standard(REGULAR));
+        assertSame(Tariff.NEW_RELEASE, Tariff.standard(NEW_RELEASE));
+        assertSame(Tariff.CHILDRENS, Tariff.standard(CHILDRENS));
+    }
+}
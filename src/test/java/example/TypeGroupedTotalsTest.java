@@ -0,0 +1,74 @@
+package example;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static example.Movie.MovieType.*;
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for the TypeGroupedTotals class.
+ */
+public class TypeGroupedTotalsTest {
+
+    private static Customer randomCustomer(int rentals, PriceTable prices, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        RentalLedger ledger = new RentalLedger();
+        for (int i = 0; i < rentals; i++) {
+            ledger.add("Movie " + random.nextInt(50), Movie.MovieType.values()[random.nextInt(3)], random.nextInt(-2, 400));
+        }
+        return new Customer("John", ledger, prices);
+    }
+
+    @Test
+    public void shouldMatchStatementTotalsOnRandomMixes() {
+        for (long seed = 0; seed < 20; seed++) {
+            Customer customer = randomCustomer(1000, PriceTable.STANDARD, seed);
+
+            assertEquals(customer.totals(), TypeGroupedTotals.of(customer));
+        }
+    }
+
+    @Test
+    public void shouldMatchStatementFooter() {
+        Customer customer = new Customer("John", List.of(
+                new Rental(new Movie("The Matrix", REGULAR), 3),
+                new Rental(new Movie("Avatar 3", NEW_RELEASE), 2),
+                new Rental(new Movie("Finding Nemo", CHILDRENS), 4)));
+
+        BillingTotals totals = TypeGroupedTotals.of(customer);
+
+        assertEquals(3, totals.getRentals());
+        assertTrue(customer.statement().contains("Amount owed is " + Money.toString(totals.getAmountCents())));
+        assertTrue(customer.statement().contains("You earned " + totals.getFrequentRenterPoints() + " frequent renter points"));
+    }
+
+    @Test
+    public void shouldUseTableForNonTariffPolicies() {
+        PricingPolicy flat = new PricingPolicy() {
+            @Override
+            public long chargeCents(int daysRented) {
+                return 99;
+            }
+
+            @Override
+            public int frequentRenterPoints(int daysRented) {
+                return 5;
+            }
+        };
+        PriceTable prices = PriceTable.STANDARD.withPolicy(CHILDRENS, flat);
+        Customer customer = randomCustomer(500, prices, 3);
+
+        assertEquals(customer.totals(), TypeGroupedTotals.of(customer));
+    }
+
+    @Test
+    public void shouldHandleNoRentals() {
+        Customer customer = new Customer("John", new ArrayList<>());
+
+        assertEquals(BillingTotals.ZERO, TypeGroupedTotals.of(customer));
+    }
+}